@@ -0,0 +1,108 @@
+package com.example.elevator.benchmarks;
+
+import com.example.elevator.Agenda;
+import com.example.elevator.Elevator;
+import com.example.elevator.PassengerQueue;
+import com.example.elevator.Person;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AgendaBenchmark {
+    private static final long SEED = 42;
+
+    // people waiting, spread over the floors (all on the boarding floor for boardPassengers)
+    @Param({"8", "64", "512"})
+    public int queueDepth;
+
+    @Param({"10", "50", "200"})
+    public int floors;
+
+    @Param({"MIXED", "DOCTOR", "NURSE", "PATIENT", "PATIENT_CRUTCHES", "PATIENT_FRAME", "PATIENT_WHEELCHAIR", "VISITOR"})
+    public PassengerMix mix;
+
+    //separate people for each agenda, boarding changes their destination and floors passed
+    private Person[] routingPeople;
+    private Person[] boardingPeople;
+    private int[] startFloors;
+    private int[] destinationFloors;
+    private int[] servedFloors;
+
+    //a car parked mid-building with a load inside and hall calls above and below
+    private Elevator routingElevator;
+    private Agenda routingAgenda;
+
+    //rebuilt before every boardPassengers call, boarding empties the queue
+    @State(Scope.Thread)
+    public static class BoardingFloor {
+        private Elevator elevator;
+        private Agenda agenda;
+
+        @Setup(Level.Invocation)
+        public void fill(AgendaBenchmark benchmark) {
+            elevator = new Elevator("E02", 1600, 3, 3, benchmark.servedFloors, 0);
+            agenda = new Agenda(elevator, new PassengerQueue(), new HashMap<>());
+            for (int i = 0; i < benchmark.queueDepth; i++) {
+                Person person = benchmark.boardingPeople[i];
+                person.resetFloorsPassed();
+                agenda.addPersonToQueue(person, 0, 1 + benchmark.destinationFloors[i] % (benchmark.floors - 1));
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createPeople() {
+        Random random = new Random(SEED);
+        routingPeople = mix.create(queueDepth, SEED);
+        boardingPeople = mix.create(queueDepth, SEED);
+        startFloors = new int[queueDepth];
+        destinationFloors = new int[queueDepth];
+        for (int i = 0; i < queueDepth; i++) {
+            startFloors[i] = random.nextInt(floors);
+            destinationFloors[i] = (startFloors[i] + 1 + random.nextInt(floors - 1)) % floors;
+        }
+        servedFloors = IntStream.range(0, floors).toArray();
+
+        int middle = floors / 2;
+        routingElevator = new Elevator("E01", 1600, 3, 3, servedFloors, middle);
+        routingAgenda = new Agenda(routingElevator, new PassengerQueue(), new HashMap<>());
+        for (int i = 0; i < queueDepth; i++) {
+            routingAgenda.addPersonToQueue(routingPeople[i], startFloors[i], destinationFloors[i]);
+        }
+        routingAgenda.boardPassengers(routingElevator);
+    }
+
+    @Benchmark
+    public Agenda boardPassengers(BoardingFloor floor) {
+        floor.agenda.boardPassengers(floor.elevator);
+        return floor.agenda;
+    }
+
+    @Benchmark
+    public int determineNextDestination() {
+        return routingAgenda.determineNextDestination(routingElevator);
+    }
+
+    @Benchmark
+    public void getNextIntermediateStop(Blackhole blackhole) {
+        int current = routingElevator.getCurrentFloor();
+        blackhole.consume(routingAgenda.getNextIntermediateStop(current, floors - 1));
+        blackhole.consume(routingAgenda.getNextIntermediateStop(current, 0));
+    }
+
+    @Benchmark
+    public Agenda sortAndGroup() {
+        routingAgenda.sortAndGroup();
+        return routingAgenda;
+    }
+}
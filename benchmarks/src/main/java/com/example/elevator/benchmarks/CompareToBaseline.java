@@ -0,0 +1,90 @@
+package com.example.elevator.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Compares two JMH JSON result files and flags every benchmark that got slower than the tolerance
+public class CompareToBaseline {
+    private static final double DEFAULT_TOLERANCE = 0.10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: CompareToBaseline <baseline.json> <current.json> [tolerance, default 0.10]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+        Map<String, JsonObject> baseline = read(args[0]);
+        Map<String, JsonObject> current = read(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %8s%n", "Benchmark", "Baseline", "Current", "Ratio");
+        for (Map.Entry<String, JsonObject> entry : current.entrySet()) {
+            JsonObject before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.2f %8s%n", entry.getKey(), "-", score(entry.getValue(), "primaryMetric"), "new");
+                continue;
+            }
+
+            //every benchmark here reports time per operation, so a bigger ratio is slower
+            double ratio = score(entry.getValue(), "primaryMetric") / score(before, "primaryMetric");
+            boolean slower = ratio > 1 + tolerance;
+            if (slower) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.2f %14.2f %7.2fx%s%n", entry.getKey(), score(before, "primaryMetric"),
+                    score(entry.getValue(), "primaryMetric"), ratio, slower ? "  SLOWER" : "");
+
+            Double allocationBefore = allocation(before);
+            Double allocationNow = allocation(entry.getValue());
+            if (allocationBefore != null && allocationNow != null && allocationNow > allocationBefore * (1 + tolerance) + 1) {
+                regressions++;
+                System.out.printf("%-90s %14.1f %14.1f %8s  MORE ALLOCATION (B/op)%n", "", allocationBefore, allocationNow, "");
+            }
+        }
+
+        System.out.println(regressions == 0 ? "No regressions." : regressions + " regression(s) over " + Math.round(tolerance * 100) + "%.");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    // Results keyed by benchmark name and parameters, e.g. AgendaBenchmark.sortAndGroup floors=10 mix=MIXED queueDepth=8
+    private static Map<String, JsonObject> read(String path) throws IOException {
+        Map<String, JsonObject> results = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                StringBuilder key = new StringBuilder(run.get("benchmark").getAsString().replace("com.example.elevator.benchmarks.", ""));
+                if (run.has("params")) {
+                    for (Map.Entry<String, JsonElement> param : run.getAsJsonObject("params").entrySet()) {
+                        key.append(' ').append(param.getKey()).append('=').append(param.getValue().getAsString());
+                    }
+                }
+                results.put(key.toString(), run);
+            }
+        }
+        return results;
+    }
+
+    private static double score(JsonObject run, String metric) {
+        return run.getAsJsonObject(metric).get("score").getAsDouble();
+    }
+
+    // Bytes allocated per operation, only present when the run used -prof gc
+    private static Double allocation(JsonObject run) {
+        JsonObject secondary = run.getAsJsonObject("secondaryMetrics");
+        if (secondary == null || !secondary.has("gc.alloc.rate.norm")) {
+            return null;
+        }
+        return secondary.getAsJsonObject("gc.alloc.rate.norm").get("score").getAsDouble();
+    }
+}
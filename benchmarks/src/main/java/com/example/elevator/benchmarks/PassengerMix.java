@@ -0,0 +1,60 @@
+package com.example.elevator.benchmarks;
+
+import com.example.elevator.Doctor;
+import com.example.elevator.Nurse;
+import com.example.elevator.Patient;
+import com.example.elevator.Person;
+import com.example.elevator.Visitor;
+import com.example.elevator.WalkingAid;
+
+import java.util.Random;
+
+// Who is waiting for the elevator, every value but MIXED is a single kind of passenger
+public enum PassengerMix {
+    DOCTOR, NURSE, PATIENT, PATIENT_CRUTCHES, PATIENT_FRAME, PATIENT_WHEELCHAIR, VISITOR, MIXED;
+
+    private static final PassengerMix[] SINGLE = {DOCTOR, NURSE, PATIENT, PATIENT_CRUTCHES, PATIENT_FRAME, PATIENT_WHEELCHAIR, VISITOR};
+
+    public Person create(Random random) {
+        int weight = 50 + random.nextInt(60);
+        int height = 150 + random.nextInt(50);
+
+        switch (this) {
+            case DOCTOR:
+                Doctor doctor = new Doctor(weight, height);
+                doctor.setEmergencyLevel(1 + random.nextInt(3));
+                return doctor;
+            case NURSE:
+                Nurse nurse = new Nurse(weight, height);
+                nurse.setEmergencyLevel(1 + random.nextInt(3));
+                return nurse;
+            case PATIENT:
+                return patient(weight, height, WalkingAid.None);
+            case PATIENT_CRUTCHES:
+                return patient(weight, height, WalkingAid.Crutches);
+            case PATIENT_FRAME:
+                return patient(weight, height, WalkingAid.Frame);
+            case PATIENT_WHEELCHAIR:
+                return patient(weight, height, WalkingAid.Wheelchair);
+            case VISITOR:
+                return new Visitor(weight, height);
+            default:
+                return SINGLE[random.nextInt(SINGLE.length)].create(random);
+        }
+    }
+
+    public Person[] create(int count, long seed) {
+        Random random = new Random(seed);
+        Person[] people = new Person[count];
+        for (int i = 0; i < count; i++) {
+            people[i] = create(random);
+        }
+        return people;
+    }
+
+    private static Patient patient(int weight, int height, WalkingAid aid) {
+        Patient patient = new Patient(weight, height);
+        patient.setWalkingAid(aid);
+        return patient;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.elevator.benchmarks;
+
+import com.example.elevator.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PersonBenchmark {
+    private static final int PEOPLE = 1024;
+
+    @Param({"MIXED", "DOCTOR", "NURSE", "PATIENT", "PATIENT_CRUTCHES", "PATIENT_FRAME", "PATIENT_WHEELCHAIR", "VISITOR"})
+    public PassengerMix mix;
+
+    private Person[] people;
+
+    @Setup(Level.Trial)
+    public void createPeople() {
+        people = mix.create(PEOPLE, 42);
+    }
+
+    // Sum over a batch, so the call itself and not the loop dominates
+    @Benchmark
+    @OperationsPerInvocation(PEOPLE)
+    public double getSurface() {
+        double total = 0;
+        for (Person person : people) {
+            total += person.getSurface();
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PEOPLE)
+    public long getWeight() {
+        long total = 0;
+        for (Person person : people) {
+            total += person.getWeight();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.elevator.benchmarks;
+
+import com.example.elevator.Agenda;
+import com.example.elevator.Elevator;
+import com.example.elevator.PassengerQueue;
+import com.example.elevator.Person;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Runs the move -> unboard -> board -> decide cycle of every dispatch and boarding mode until it is warm,
+// then counts the bytes the thread allocates per tick. Exits with 1 if any combination allocates at all.
+public class TickAllocationCheck {
+    private static final String[] DISPATCH = {"priority", "look", "scan", "collective", "planner"};
+    private static final String[] BOARDING = {"fifo", "knapsack"};
+    private static final int FLOORS = 20;
+    private static final int PASSENGERS = 60;
+    private static final int WARMUP_TICKS = 300_000;
+    private static final int MEASURED_TICKS = 100_000;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("This JVM does not count allocated bytes per thread.");
+            System.exit(2);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        int failures = 0;
+        System.out.printf("%-12s %-10s %12s%n", "Dispatch", "Boarding", "B/tick");
+        for (String dispatch : DISPATCH) {
+            for (String boarding : BOARDING) {
+                Tick tick = new Tick(dispatch, boarding);
+                for (int i = 0; i < WARMUP_TICKS; i++) {
+                    tick.run();
+                }
+                long before = threads.getThreadAllocatedBytes(thread);
+                for (int i = 0; i < MEASURED_TICKS; i++) {
+                    tick.run();
+                }
+                long bytes = threads.getThreadAllocatedBytes(thread) - before;
+                boolean allocates = bytes > 0;
+                if (allocates) {
+                    failures++;
+                }
+                System.out.printf("%-12s %-10s %12.2f%s%n", dispatch, boarding, bytes / (double) MEASURED_TICKS, allocates ? "  ALLOCATES" : "");
+            }
+        }
+
+        System.out.println(failures == 0 ? "Steady-state ticks are allocation-free." : failures + " combination(s) allocate.");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // One car with a fixed population, whoever gets off calls the car again from that floor
+    private static class Tick {
+        private final Elevator elevator;
+        private final Agenda agenda;
+        private final Person[] leaving = new Person[PASSENGERS];
+        private int random = (int) SEED;
+
+        Tick(String dispatch, String boarding) {
+            elevator = new Elevator("E01", 1000, 3, 3, IntStream.range(0, FLOORS).toArray(), 0);
+            elevator.setDispatch(dispatch);
+            elevator.setBoarding(boarding);
+            agenda = new Agenda(elevator, new PassengerQueue(), new HashMap<>());
+            agenda.setClock(() -> 0L);
+            Person[] people = PassengerMix.MIXED.create(PASSENGERS, SEED);
+            for (Person person : people) {
+                int start = nextFloor(-1);
+                agenda.addPersonToQueue(person, start, nextFloor(start));
+            }
+        }
+
+        void run() {
+            int next = agenda.determineNextDestination(elevator);
+            if (next > elevator.getCurrentFloor()) {
+                elevator.moveUp();
+            } else if (next < elevator.getCurrentFloor()) {
+                elevator.moveDown();
+            }
+            if (elevator.getCurrentFloor() != next) {
+                return;
+            }
+
+            List<Person> arriving = agenda.getDestinationIndex().peopleFor(next);
+            int count = arriving.size();
+            for (int i = 0; i < count; i++) {
+                leaving[i] = arriving.get(i);
+            }
+            agenda.unboardPassengers(elevator);
+            for (int i = 0; i < count; i++) {
+                agenda.addPersonToQueue(leaving[i], next, nextFloor(next));
+                leaving[i] = null;
+            }
+            agenda.boardPassengers(elevator);
+        }
+
+        // A floor other than 'not', from a small LCG so the check itself allocates nothing
+        private int nextFloor(int not) {
+            random = random * 1103515245 + 12345;
+            int floor = (random >>> 8) % FLOORS;
+            return floor == not ? (floor + 1) % FLOORS : floor;
+        }
+    }
+}
@@ -7,6 +7,8 @@ import java.util.Queue;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.function.LongSupplier;
 import java.util.stream.DoubleStream;
 
 import static java.lang.Long.sum;
@@ -16,37 +18,226 @@ public class Agenda {
     private Queue<Person> queueInside;
     private Map<Integer, Queue<Person>> queuesByFloor;
 
+    //waiting load, kept up to date so dispatchers can cost this car in O(1)
+    private int waitingCount;
+    private long waitingWeight;
+    private double waitingSurface;
+    private int activeFloors;
+
+    //load of the people inside, updated on every board and unboard
+    private long usedWeight;
+    private double usedSurface;
+
+    //who gets off where, so stops and unboarding never scan the whole car
+    private final DestinationIndex destinations = new DestinationIndex();
+
+    //head priority of every floor queue, answers building-wide queries in O(log F)
+    private final HallCallIndex hallCalls;
+
+    //wait, ride and queue depth figures, timed by the clock (wall time, or simulated time while simulating)
+    public static final LongSupplier SYSTEM_CLOCK = System::currentTimeMillis;
+    private final PassengerMetrics metrics = new PassengerMetrics();
+    private LongSupplier clock = SYSTEM_CLOCK;
+
+    //routing policy, picked per elevator with the "dispatch" field in elevators.json
+    private DispatchStrategy dispatchStrategy;
+
+    //who gets in when not everyone fits
+    private BoardingMode boardingMode;
+    private BoardingSelector boardingSelector;
+    private final List<Person> boardingCandidates = new ArrayList<>();
+    private final boolean[] boardingChoice = new boolean[BoardingSelector.MAX_CANDIDATES];
+    private final int[] candidatePriorities = new int[BoardingSelector.MAX_CANDIDATES];
+
+    //hall calls published by other threads, moved into the floor queues at each decision point
+    public static final int INTAKE_CAPACITY = 4096;
+    private volatile HallCallBuffer intake; // created by the first submitted call, most agendas never need one
+    private final HallCallBuffer.Consumer intakeConsumer = this::enqueue;
+
+    //recount the load after every change and fail fast if the running totals drift
+    private static boolean debugAccounting = Boolean.getBoolean("elevator.debugAccounting");
+    private static final double SURFACE_TOLERANCE = 1e-9;
+
+    //compare by priority (bigger priority comes first)
+    private static final Comparator<Person> PRIORITY_ORDER = Comparator.comparingInt(Person::getEffectivePriority).reversed();
+
     public Agenda(Elevator elevator, Queue<Person> queueInside, Map<Integer, Queue<Person>> queuesByFloor) {
         //an agenda handles a single elevator, and the respective queues
         this.elevator = elevator;
         this.queueInside = queueInside;
         this.queuesByFloor = queuesByFloor;
+        this.dispatchStrategy = DispatchStrategy.create(elevator.getDispatch());
+        setBoardingMode(BoardingMode.fromName(elevator.getBoarding()));
+
+        for (Person person : queueInside) {
+            usedWeight += person.getWeight();
+            usedSurface += person.getSurface();
+            destinations.add(person);
+        }
+
+        this.hallCalls = new HallCallIndex(Math.max(0, elevator.getServedFloors().getHighest()) + 1);
+        long now = clock.getAsLong();
+        for (Map.Entry<Integer, Queue<Person>> entry : queuesByFloor.entrySet()) {
+            Queue<Person> floorQueue = entry.getValue();
+            if (!floorQueue.isEmpty()) {
+                activeFloors++;
+            }
+            metrics.updateQueueDepth(entry.getKey(), floorQueue.size());
+            for (Person person : floorQueue) {
+                if (person.getQueuedAt() < 0) {
+                    person.setQueuedAt(now);
+                }
+                waitingCount++;
+                waitingWeight += person.getWeight();
+                waitingSurface += person.getSurface();
+                hallCalls.addWaiting(entry.getKey(), Integer.signum(person.getDestinationFloor() - entry.getKey()), 1);
+            }
+            refreshHallCall(entry.getKey(), floorQueue);
+        }
+    }
+
+    public static void setDebugAccounting(boolean enabled) {
+        debugAccounting = enabled;
+    }
+
+    public static boolean isDebugAccounting() {
+        return debugAccounting;
+    }
+
+    // Time source for passenger metrics, in milliseconds
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    // Start the waits and rides of everyone already here at the given time when their timestamps come from
+    // another clock, i.e. lie after it, such as wall time stamps before a run switches to simulated time
+    public void restampAfter(long time) {
+        drainHallCalls();
+        for (Queue<Person> floorQueue : queuesByFloor.values()) {
+            for (Person person : floorQueue) {
+                if (person.getQueuedAt() > time) {
+                    person.setQueuedAt(time);
+                }
+            }
+        }
+        for (Person person : queueInside) {
+            if (person.getBoardedAt() > time) {
+                person.setBoardedAt(time);
+            }
+        }
+    }
+
+    public DispatchStrategy getDispatchStrategy() {
+        return dispatchStrategy;
+    }
+
+    public void setDispatchStrategy(DispatchStrategy dispatchStrategy) {
+        this.dispatchStrategy = dispatchStrategy;
+    }
+
+    public BoardingMode getBoardingMode() {
+        return boardingMode;
+    }
+
+    public void setBoardingMode(BoardingMode boardingMode) {
+        this.boardingMode = boardingMode;
+        if (boardingMode == BoardingMode.KNAPSACK && boardingSelector == null) {
+            boardingSelector = new BoardingSelector();
+        }
+    }
+
+    public PassengerMetrics getMetrics() {
+        return metrics;
     }
 
     public void addPersonToQueue(Person person, int floor, int destinationFloor) {
+        validateFloors(floor, destinationFloor);
+        enqueue(person, floor, destinationFloor, clock.getAsLong());
+    }
+
+    // Thread-safe intake for floor panels, never blocks and returns false if the intake buffer is full.
+    // The call joins its floor queue the next time the dispatcher boards or picks a destination.
+    public boolean submitHallCall(Person person, int floor, int destinationFloor) {
+        validateFloors(floor, destinationFloor);
+        HallCallBuffer buffer = intake;
+        if (buffer == null) {
+            buffer = createIntake();
+        }
+        return buffer.offer(person, floor, destinationFloor, clock.getAsLong());
+    }
+
+    // Move every published hall call into the floor queues, called on the dispatcher thread
+    public int drainHallCalls() {
+        HallCallBuffer buffer = intake;
+        return buffer == null ? 0 : buffer.drain(intakeConsumer, Integer.MAX_VALUE);
+    }
+
+    public long getRejectedHallCalls() {
+        HallCallBuffer buffer = intake;
+        return buffer == null ? 0 : buffer.getRejectedCount();
+    }
+
+    private synchronized HallCallBuffer createIntake() {
+        if (intake == null) {
+            intake = new HallCallBuffer(INTAKE_CAPACITY);
+        }
+        return intake;
+    }
+
+    private void validateFloors(int floor, int destinationFloor) {
+        if (floor < 0 || destinationFloor < 0) {
+            throw new IllegalArgumentException("Floors must not be negative.");
+        }
+        if (!elevator.canAccessFloor(floor) || !elevator.canAccessFloor(destinationFloor)) {
+            throw new IllegalArgumentException("Elevator " + elevator.getId() + " does not serve floor "
+                    + (elevator.canAccessFloor(floor) ? destinationFloor : floor) + ".");
+        }
+    }
+
+    private void enqueue(Person person, int floor, int destinationFloor, long queuedAt) {
         //assign destination
         person.setDestinationFloor(destinationFloor);
+        person.setQueuedAt(queuedAt);
 
-        //initialize floor queue if necessary
-        queuesByFloor.computeIfAbsent(floor, k -> new LinkedList<>()).add(person);
+        //initialize floor queue if necessary, bucket queues keep themselves ordered by priority
+        Queue<Person> floorQueue = queuesByFloor.computeIfAbsent(floor, k -> new FloorQueue());
+        if (floorQueue.isEmpty()) {
+            activeFloors++;
+        }
+        floorQueue.add(person);
+        waitingCount++;
+        waitingWeight += person.getWeight();
+        waitingSurface += person.getSurface();
+        hallCalls.addWaiting(floor, Integer.signum(destinationFloor - floor), 1);
+
+        if (!(floorQueue instanceof FloorQueue)) {
+            sortFloor(floorQueue);
+        }
+        refreshHallCall(floor, floorQueue);
+        metrics.updateQueueDepth(floor, floorQueue.size());
+    }
 
-        //sort queue by priority
-        sortAndGroup();
+    private void refreshHallCall(int floor, Queue<Person> floorQueue) {
+        Person head = floorQueue.peek();
+        hallCalls.update(floor, head == null ? HallCallIndex.NONE : head.getEffectivePriority());
     }
 
     public Comparator<Person> comparePriority() {
-        //compare by priority (bigger priority comes first)
-        return Comparator.comparingInt(Person::getEffectivePriority).reversed();
+        return PRIORITY_ORDER;
     }
 
     public Person getNextPerson() {
-        // get next person inside elevator by priority
-        if (!queueInside.isEmpty()) {
-            List<Person> sortedList = new ArrayList<>(queueInside);
-            sortedList.sort(comparePriority());
-            return sortedList.get(0);
+        // get next person inside elevator by priority, the first one inside wins a tie
+        if (queueInside instanceof PassengerQueue) {
+            return ((PassengerQueue) queueInside).highestPriority();
+        }
+        Person top = null;
+        for (Person person : queueInside) {
+            if (top == null || person.getEffectivePriority() > top.getEffectivePriority()) {
+                top = person;
+            }
         }
-        return null;
+        return top;
     }
 
     public boolean isFull() {
@@ -54,126 +245,245 @@ public class Agenda {
     }
 
     public void boardPassengers(Elevator elevator) {
+        drainHallCalls();
         int floor = elevator.getCurrentFloor();
         Queue<Person> floorQueue = queuesByFloor.get(floor);
         if (floorQueue == null || floorQueue.isEmpty()) return;
 
+        long now = clock.getAsLong();
+        if (boardingMode == BoardingMode.KNAPSACK) {
+            boardBestFit(floorQueue, now);
+        } else {
+            boardInOrder(floorQueue, now);
+        }
+        if (floorQueue.isEmpty()) {
+            activeFloors--;
+        }
+        refreshHallCall(floor, floorQueue);
+        metrics.updateQueueDepth(floor, floorQueue.size());
+        if (debugAccounting) {
+            verifyLoad();
+        }
+    }
+
+    private void boardInOrder(Queue<Person> floorQueue, long now) {
         while (!floorQueue.isEmpty() && !isFull()) {
             Person person = floorQueue.peek();
 
             assert person != null;
+            int priorityBefore = person.getEffectivePriority();
             person.incrementFloorsPassed();
-            int personWeight = person.getWeight();
-            double personSize = person.getSurface();
 
-            if (getAvailableWeight() >= personWeight && getAvailableSpace() >= personSize) {
-                queueInside.add(floorQueue.poll());
+            if (getAvailableWeight() >= person.getWeight() && getAvailableSpace() >= person.getSurface()) {
+                //still the head of its bucket, a boost only changed its priority in place
+                board(floorQueue.poll(), now);
             } else {
+                //left behind, move only this person if the fairness boost kicked in
+                if (person.getEffectivePriority() != priorityBefore) {
+                    reprioritize(floorQueue, person, priorityBefore);
+                }
                 break;
             }
         }
-        sortAndGroup();
     }
 
-    public boolean areAllQueuesEmpty() {
-        if (!queueInside.isEmpty()) {
-            return false;
+    // Let in the best-fitting mix of the people at the front of the queue, not just those before the first misfit
+    private void boardBestFit(Queue<Person> floorQueue, long now) {
+        if (isFull()) {
+            return;
         }
-        for (Queue<Person> floorQueue : queuesByFloor.values()) {
-            if (!floorQueue.isEmpty()) {
-                return false;
+        boardingCandidates.clear();
+        FloorQueue buckets = floorQueue instanceof FloorQueue ? (FloorQueue) floorQueue : null;
+        if (buckets != null) {
+            int count = Math.min(buckets.size(), BoardingSelector.MAX_CANDIDATES);
+            for (int i = 0; i < count; i++) {
+                addBoardingCandidate(buckets.get(i));
+            }
+        } else {
+            for (Person person : floorQueue) {
+                if (boardingCandidates.size() == BoardingSelector.MAX_CANDIDATES) {
+                    break;
+                }
+                addBoardingCandidate(person);
+            }
+        }
+        int candidates = boardingCandidates.size();
+        boardingSelector.select(boardingCandidates, getAvailableWeight(), getAvailableSpace(),
+                elevator.getWeight(), elevator.getSurface(), boardingChoice);
+
+        int lastChosen = -1;
+        for (int i = 0; i < candidates; i++) {
+            if (boardingChoice[i]) {
+                lastChosen = i;
             }
         }
 
-        return true;
+        //one pass over the queue front takes out everyone chosen, the queue iterates in candidate order
+        if (buckets != null) {
+            buckets.removeChosen(boardingChoice, candidates);
+        } else {
+            int index = 0;
+            for (Iterator<Person> people = floorQueue.iterator(); people.hasNext() && index < candidates; index++) {
+                people.next();
+                if (boardingChoice[index]) {
+                    people.remove();
+                }
+            }
+        }
+        for (int i = 0; i < candidates; i++) {
+            Person person = boardingCandidates.get(i);
+            if (boardingChoice[i]) {
+                person.resetBoardingSkips();
+                board(person, now);
+            } else {
+                if (i < lastChosen) {
+                    person.incrementBoardingSkips(); // someone behind them got in first
+                }
+                if (person.getEffectivePriority() != candidatePriorities[i]) {
+                    reprioritize(floorQueue, person, candidatePriorities[i]);
+                }
+            }
+        }
     }
 
-    public void unboardPassengers(Elevator elevator) {
-        int currentFloor = elevator.getCurrentFloor();
-        queueInside.removeIf(person -> person.getDestinationFloor() == currentFloor);
+    private void addBoardingCandidate(Person person) {
+        candidatePriorities[boardingCandidates.size()] = person.getEffectivePriority();
+        person.incrementFloorsPassed();
+        boardingCandidates.add(person);
     }
 
-    public int determineNextDestination(Elevator elevator) {
-        Person topPriorityPerson = null;
-        int destination = elevator.getCurrentFloor();
-
-        if (!queueInside.isEmpty()) {
-            topPriorityPerson = queueInside.peek();
-            destination = topPriorityPerson.getDestinationFloor();
+    private void board(Person person, long now) {
+        int personWeight = person.getWeight();
+        double personSize = person.getSurface();
+        queueInside.add(person);
+        destinations.add(person);
+        usedWeight += personWeight;
+        usedSurface += personSize;
+        waitingCount--;
+        waitingWeight -= personWeight;
+        waitingSurface -= personSize;
+        int floor = elevator.getCurrentFloor(); // people board where the car stands
+        hallCalls.addWaiting(floor, Integer.signum(person.getDestinationFloor() - floor), -1);
+        person.setBoardedAt(now);
+        metrics.recordWait(person, now - person.getQueuedAt());
+    }
 
-            // Check if the destination floor is accessible
-            if (!elevator.canAccessFloor(destination)) {
-                OutputDevice.printError("Elevator cannot access floor " + destination + ". Ignoring this request.");
-                return elevator.getCurrentFloor(); // Stay on the current floor if the floor is not accessible
-            }
+    private void reprioritize(Queue<Person> floorQueue, Person person, int oldPriority) {
+        if (floorQueue instanceof FloorQueue) {
+            ((FloorQueue) floorQueue).reprioritize(person, oldPriority);
         } else {
-            for (Map.Entry<Integer, Queue<Person>> entry : queuesByFloor.entrySet()) {
-                Queue<Person> floorQueue = entry.getValue();
+            sortFloor(floorQueue);
+        }
+    }
+
+    public boolean areAllQueuesEmpty() {
+        drainHallCalls();
+        return queueInside.isEmpty() && hallCalls.isEmpty();
+    }
 
-                if (!floorQueue.isEmpty()) {
-                    Person firstPersonInQueue = floorQueue.peek();
+    public void unboardPassengers(Elevator elevator) {
+        int currentFloor = elevator.getCurrentFloor();
+        if (!destinations.hasDestination(currentFloor)) {
+            return;
+        }
 
-                    if (topPriorityPerson == null || firstPersonInQueue.getEffectivePriority() > topPriorityPerson.getEffectivePriority()) {
-                        topPriorityPerson = firstPersonInQueue;
-                        destination = entry.getKey(); // Set destination to the person's current floor
-                    }
-                }
+        //only touch the people who are leaving
+        long now = clock.getAsLong();
+        List<Person> leaving = destinations.peopleFor(currentFloor);
+        for (int i = 0; i < leaving.size(); i++) {
+            Person person = leaving.get(i);
+            queueInside.remove(person);
+            usedWeight -= person.getWeight();
+            usedSurface -= person.getSurface();
+            person.setAlightedAt(now);
+            if (person.getBoardedAt() >= 0) {
+                metrics.recordRide(person, now - person.getBoardedAt());
             }
         }
+        destinations.clearFloor(currentFloor);
 
-        if (topPriorityPerson == null) {
-            return elevator.getCurrentFloor();
-        }else {
-            if (topPriorityPerson.getEffectivePriority() >= 6 || isFull()) {
-                return destination;
-            } else {
-                return getNextIntermediateStop(elevator.getCurrentFloor(), destination);
-            }
+        if (queueInside.isEmpty()) {
+            usedSurface = 0; // drop any rounding drift once the car is empty
         }
+        if (debugAccounting) {
+            verifyLoad();
+        }
+    }
+
+    public int determineNextDestination(Elevator elevator) {
+        drainHallCalls();
+        return dispatchStrategy.nextDestination(this, elevator);
     }
 
     public int getNextIntermediateStop(int currentFloor, int destinationFloor) {
         int direction = Integer.compare(destinationFloor, currentFloor);
+        if (direction == 0) {
+            return destinationFloor;
+        }
+
+        //stop for inside people, the closest drop-off in the travel direction bounds the search
         int nextStop = destinationFloor;
+        int dropOff = destinations.nextDestination(currentFloor, direction);
+        if (dropOff >= 0 && (destinationFloor - dropOff) * direction > 0) {
+            nextStop = dropOff;
+        }
 
-        for (int floor = currentFloor + direction; floor != destinationFloor; floor += direction) {
-            //stop for outside queue
-            if (queuesByFloor.containsKey(floor) && !queuesByFloor.get(floor).isEmpty()) {
-                return floor;
-            }
-            //stop for inside people
-            for (Person person : queueInside) {
-                if (person.getDestinationFloor() == floor) {
-                    return floor;
-                }
-            }
+        //stop for outside queue
+        int pickup = hallCalls.nextNonEmpty(currentFloor, direction);
+        if (pickup != HallCallIndex.NONE && (nextStop - pickup) * direction > 0) {
+            return pickup;
         }
         return nextStop;
     }
 
+    // Full re-sort of every floor, only needed if priorities were changed outside of the agenda
     public void sortAndGroup() {
-        for (Queue<Person> floorQueue : queuesByFloor.values()) {
-            List<Person> sortedList = new ArrayList<>(floorQueue);
-            sortedList.sort(comparePriority());
-            floorQueue.clear();
-            floorQueue.addAll(sortedList);
+        for (Map.Entry<Integer, Queue<Person>> entry : queuesByFloor.entrySet()) {
+            Queue<Person> floorQueue = entry.getValue();
+            if (floorQueue instanceof FloorQueue) {
+                ((FloorQueue) floorQueue).rebucket();
+            } else {
+                sortFloor(floorQueue);
+            }
+            refreshHallCall(entry.getKey(), floorQueue);
         }
     }
 
+    private void sortFloor(Queue<Person> floorQueue) {
+        List<Person> sortedList = new ArrayList<>(floorQueue);
+        sortedList.sort(PRIORITY_ORDER);
+        floorQueue.clear();
+        floorQueue.addAll(sortedList);
+    }
+
     public double getAvailableSpace() {
-        double usedSpace = queueInside.stream()
-                .mapToDouble(person -> person.getSurface())
-                .sum();
-        return elevator.getSurface() - usedSpace;
+        return elevator.getSurface() - usedSurface;
     }
 
     public double getAvailableWeight() {
-        double usedWeight = queueInside.stream()
-                .mapToInt(person -> person.getWeight())
-                .sum();
         return Math.max(0, elevator.getWeight() - usedWeight);
     }
 
+    // Recount the load of the people inside and compare it with the running totals
+    public void verifyLoad() {
+        long countedWeight = 0;
+        double countedSurface = 0;
+        for (Person person : queueInside) {
+            countedWeight += person.getWeight();
+            countedSurface += person.getSurface();
+        }
+
+        if (destinations.size() != queueInside.size()) {
+            throw new IllegalStateException("Destination index for elevator " + elevator.getId() + " holds "
+                    + destinations.size() + " people but " + queueInside.size() + " are inside.");
+        }
+        if (countedWeight != usedWeight || Math.abs(countedSurface - usedSurface) > SURFACE_TOLERANCE) {
+            throw new IllegalStateException("Load accounting drifted for elevator " + elevator.getId()
+                    + ": tracked " + usedWeight + " kg / " + usedSurface + " m2, counted "
+                    + countedWeight + " kg / " + countedSurface + " m2.");
+        }
+    }
+
     public boolean evaluateStop(Elevator elevator, int floor) {
         Queue<Person> floorQueue = queuesByFloor.get(floor);
 
@@ -185,6 +495,35 @@ public class Agenda {
         return floorQueue.peek().getEffectivePriority() > queueInside.peek().getEffectivePriority();
     }
 
+    public int getWaitingCount() {
+        return waitingCount;
+    }
+
+    public long getWaitingWeight() {
+        return waitingWeight;
+    }
+
+    public double getWaitingSurface() {
+        return waitingSurface;
+    }
+
+    // Number of floors with at least one person waiting
+    public int getActiveFloorCount() {
+        return activeFloors;
+    }
+
+    public HallCallIndex getHallCallIndex() {
+        return hallCalls;
+    }
+
+    public DestinationIndex getDestinationIndex() {
+        return destinations;
+    }
+
+    public Elevator getElevator() {
+        return elevator;
+    }
+
     public Queue<Person> getQueueInside() {
         return queueInside;
     }
@@ -194,9 +533,7 @@ public class Agenda {
     }
 
     public void updatePassengerFloorsPassed() {
-        for (Person person : queueInside) {
-            person.incrementFloorsPassed();
-        }
-        sortAndGroup();
+        //only people inside are affected, the floor queues keep their order
+        queueInside.forEach(Person::incrementFloorsPassed);
     }
 }
\ No newline at end of file
@@ -1,45 +1,126 @@
 package com.example.elevator;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 
 public class Application {
     private Elevator elevator;
     private Agenda agenda;
+    private ElevatorGroup group;
+
+    //draws the floor view of a running session, -Delevator.render.fps caps its frame rate
+    private TerminalRenderer renderer;
 
     public void addElevator(int maxWeight, int width, int depth, int[] floors, int currentFloor) {
-        this.elevator = new Elevator(IDGenerator.generateElevatorID(), maxWeight, width, depth, floors, currentFloor);
-        this.agenda = new Agenda(elevator, new LinkedList<>(), new HashMap<>());
+        addElevator(new Elevator(IDGenerator.generateElevatorID(), maxWeight, width, depth, floors, currentFloor));
+    }
+
+    // Use an existing elevator, e.g. one loaded from memory, keeping its ID
+    public void addElevator(Elevator elevator) {
+        this.elevator = elevator;
+        this.agenda = new Agenda(elevator, new PassengerQueue(), new HashMap<>());
         OutputDevice.printInfo("Elevator created on floor: " + elevator.getCurrentFloor());
     }
 
+    // Run a whole bank of cars, hall calls are then shared by the group dispatcher
+    public void addElevatorGroup(List<Elevator> elevators, long travelTimePerFloor, long doorDwellTime) {
+        this.group = new ElevatorGroup(travelTimePerFloor, doorDwellTime);
+        for (Elevator car : elevators) {
+            group.addCar(car);
+        }
+        OutputDevice.printInfo("Elevator group created with " + group.size() + " cars.");
+    }
+
+    public Elevator getElevator() {
+        return elevator;
+    }
+
     // Add a person to the specified floor queue in Agenda
     public void addPersonToQueue(Person person, int startFloor, int destinationFloor) {
-        if (agenda != null) {
-            agenda.addPersonToQueue(person, startFloor, destinationFloor);
-            OutputDevice.printInfo(person.getClass().getSimpleName() + " added to queue on floor " + startFloor);
+        if (group != null) {
+            int car = group.assignHallCall(person, startFloor, destinationFloor);
+            if (car < 0) {
+                OutputDevice.printError("No elevator in the group can take this " + person.getType().toLowerCase() + " from floor " + startFloor + " to floor " + destinationFloor + ".");
+            } else {
+                OutputDevice.printInfo(person.getClass().getSimpleName() + " added to queue on floor " + startFloor + " for elevator " + group.getElevator(car).getId());
+            }
+        } else if (agenda != null) {
+            try {
+                agenda.addPersonToQueue(person, startFloor, destinationFloor);
+                OutputDevice.printInfo(person.getClass().getSimpleName() + " added to queue on floor " + startFloor);
+            } catch (IllegalArgumentException e) {
+                OutputDevice.printError(e.getMessage());
+            }
         } else {
             OutputDevice.printError("Please add an elevator before adding people.");
         }
     }
 
+    // Thread-safe intake for floor panels while a session runs, returns false if the call could not be taken
+    public boolean submitHallCall(Person person, int startFloor, int destinationFloor) {
+        if (group != null || agenda == null) {
+            return false; // the group dispatcher assigns calls on the dispatch thread only
+        }
+        return agenda.submitHallCall(person, startFloor, destinationFloor);
+    }
+
+    // Save the elevator(s) with everyone queued or riding, the agenda clock is wall time outside simulations
+    public void saveCheckpoint(File file) throws IOException {
+        if (group != null) {
+            Checkpoint.save(file, group, System.currentTimeMillis());
+        } else if (agenda != null) {
+            Checkpoint.save(file, agenda, System.currentTimeMillis());
+        } else {
+            throw new IllegalStateException("There is no elevator to save.");
+        }
+    }
+
+    // Replace the current elevator(s) with the ones in the checkpoint
+    public void restoreCheckpoint(File file) throws IOException {
+        Checkpoint checkpoint = Checkpoint.load(file);
+        if (checkpoint.isGroup()) {
+            this.group = checkpoint.toGroup();
+            this.elevator = null;
+            this.agenda = null;
+            OutputDevice.printInfo("Elevator group restored with " + group.size() + " cars.");
+        } else {
+            this.group = null;
+            this.agenda = checkpoint.getAgendas().get(0);
+            this.elevator = agenda.getElevator();
+            OutputDevice.printInfo("Elevator " + elevator.getId() + " restored on floor " + elevator.getCurrentFloor()
+                    + " with " + agenda.getQueueInside().size() + " inside and " + agenda.getWaitingCount() + " waiting.");
+        }
+    }
+
     // Start a session, which makes the elevator operate autonomously
     public void startSession() {
+        if (group != null) {
+            OutputDevice.printError("The interactive session drives a single elevator. Use 'simulate' to run the group.");
+            return;
+        }
         if (agenda == null || elevator == null) {
             OutputDevice.printError("Initialize the elevator and agenda before starting the session.");
             return;
         }
 
         OutputDevice.print("\n=== Starting Elevator Session ===\n");
-        while (true) {
-            if (agenda.areAllQueuesEmpty()) {
-                clearScreen();
-                OutputDevice.printInfo("Session complete. No further destinations.\n");
-                break;
-            }
+        renderer = new TerminalRenderer(System.out, Integer.getInteger("elevator.render.fps", TerminalRenderer.DEFAULT_FRAMES_PER_SECOND));
+        try {
+            runSession();
+        } finally {
+            renderer.close();
+            renderer = null;
+        }
+        OutputDevice.printInfo("Session complete. No further destinations.\n");
+        agenda.getMetrics().print();
+    }
 
+    private void runSession() {
+        while (!agenda.areAllQueuesEmpty()) {
             int currentFloor = elevator.getCurrentFloor();
             int nextFloor = agenda.determineNextDestination(elevator);
 
@@ -50,86 +131,57 @@ public class Application {
                     elevator.moveDown();
                 }
                 currentFloor = elevator.getCurrentFloor();
-//                clearScreen();
-//                printElevatorState();
+                renderer.submit("=== Elevator Moving ===", elevator, agenda); // frames between stops are capped, not skipped by hand
             }
 
-            clearScreen();
-            OutputDevice.print("=== Elevator Before Handling Passengers ===");
-            printElevatorState();
+            renderer.submit("=== Elevator Before Handling Passengers ===", elevator, agenda);
             awaitUserInput();
 
             agenda.unboardPassengers(elevator);
             agenda.boardPassengers(elevator);
 
-            clearScreen();
-            OutputDevice.print("=== Elevator After Handling Passengers ===");
-            printElevatorState();
+            renderer.submit("=== Elevator After Handling Passengers ===", elevator, agenda);
             awaitUserInput();
         }
     }
 
+    // Run the queued passengers through the headless event-driven engine instead of the interactive loop
+    public SimulationSummary runSimulation(long travelTimePerFloor, long doorDwellTime) {
+        Simulation simulation;
+        if (group != null) {
+            group.setTiming(travelTimePerFloor, doorDwellTime);
+            simulation = new Simulation(group);
+        } else if (agenda != null && elevator != null) {
+            simulation = new Simulation(elevator, agenda, travelTimePerFloor, doorDwellTime);
+        } else {
+            OutputDevice.printError("Initialize the elevator and agenda before starting the simulation.");
+            return null;
+        }
+
+        SimulationSummary summary = simulation.run();
+        summary.print();
+        return summary;
+    }
+
     private void awaitUserInput() {
+        if (renderer != null) {
+            renderer.awaitFrame(); // the prompt goes under the frame
+        }
         OutputDevice.print("Press Enter to continue...");
         InputDevice.getInput();
-    }
-
-    public void clearScreen() {
-        try {
-            if (System.getProperty("os.name").contains("Windows")) {
-                new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
-            } else {
-                System.out.print("\033[H\033[2J");
-                System.out.flush();
-            }
-        } catch (Exception e) {
-            OutputDevice.printError("Failed to clear screen.");
+        if (renderer != null) {
+            renderer.invalidate(); // the echoed input may have scrolled the frame
         }
     }
 
-    private void printElevatorState() {
-        int totalFloors = elevator.getFloors().length;
-        int elevatorPosition = elevator.getCurrentFloor();
-        Map<Integer, Queue<Person>> floorQueues = agenda.getQueuesByFloor();
-        Queue<Person> elevatorQueue = agenda.getQueueInside();
-
-        for (int floor = totalFloors; floor >= 1; floor--) {
-            StringBuilder floorLine = new StringBuilder();
-
-            // Floor number
-            floorLine.append(String.format("%2d |", floor));
-
-            // Elevator
-            if (floor == elevatorPosition) {
-                floorLine.append("[");
-                if (!elevatorQueue.isEmpty()) {
-                    for (Person person : elevatorQueue) {
-                        floorLine.append(person.getType().charAt(0)+"(d:"+person.getDestinationFloor()+" p:"+person.getEffectivePriority()+") ");
-                    }
-                } else {
-                    floorLine.append(" ");
-                }
-                floorLine.append("] ");
-            } else {
-                floorLine.append("    "); // Empty space where the elevator isn't
-            }
-
-            // Floor queue
-            floorLine.append("Queue: ");
-            Queue<Person> queue = floorQueues.getOrDefault(floor, new LinkedList<>());
-            if (queue.isEmpty()) {
-                floorLine.append("-");
-            } else {
-                for (Person person : queue) {
-                    floorLine.append(person.getType().charAt(0)+"(d:"+person.getDestinationFloor()+" p:"+person.getEffectivePriority()+") "); // First letter of type
-                }
-            }
-
-            // Print the floor
-            OutputDevice.print(floorLine.toString());
+    // ANSI like the colors, Windows 10 terminals understand it too, so no cls process is forked
+    public void clearScreen() {
+        OutputDevice.flush();
+        System.out.print("\033[H\033[2J");
+        System.out.flush();
+        if (renderer != null) {
+            renderer.invalidate();
         }
-
-        OutputDevice.print("\n--------------------------------------\n");
     }
 
     private void printQueues() {
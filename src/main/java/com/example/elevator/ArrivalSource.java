@@ -0,0 +1,11 @@
+package com.example.elevator;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Hall calls handed to a Simulation one at a time, so a source may be far larger than memory
+public interface ArrivalSource extends Closeable {
+
+    // Next call, with a time no earlier than the previous one, or null when the source is exhausted
+    HallCall next() throws IOException;
+}
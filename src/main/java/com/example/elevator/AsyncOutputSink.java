@@ -0,0 +1,210 @@
+package com.example.elevator;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Hands messages to a writer thread through a bounded ring, so printing never waits for the terminal or the disk.
+// The writer batches lines into one buffer per write call. If the ring is full the message is dropped and counted.
+public class AsyncOutputSink implements OutputSink {
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int IDLE_SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 100 : 0; // on one core a spin only delays the producer
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final MultiProducerRing ring;
+    private final OutputDevice.Level[] levels;
+    private final String[] messages;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final WritableByteChannel channel;
+    private final boolean closeChannel;
+    private final boolean colors;
+    private final Thread writer;
+    private volatile boolean sleeping;
+    private volatile boolean closed;
+    private volatile long written; // every position below this is out
+    private volatile IOException failure;
+
+    //writer thread only
+    private final StringBuilder line = new StringBuilder(256);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_BYTES);
+
+    public AsyncOutputSink(WritableByteChannel channel, int capacity, boolean colors, boolean closeChannel) {
+        this.ring = new MultiProducerRing(capacity);
+        this.levels = new OutputDevice.Level[capacity];
+        this.messages = new String[capacity];
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.colors = colors;
+        this.writer = new Thread(this::drainLoop, "output-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // The terminal, with colored labels. System.out itself is left open on close.
+    public static AsyncOutputSink toConsole() {
+        return new AsyncOutputSink(Channels.newChannel(new FileOutputStream(FileDescriptor.out)), DEFAULT_CAPACITY, true, false);
+    }
+
+    // Appends to the file, plain labels so the log stays greppable
+    public static AsyncOutputSink toFile(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new AsyncOutputSink(channel, DEFAULT_CAPACITY, false, true);
+    }
+
+    // Never blocks. A full ring, or a closed sink, drops the message.
+    @Override
+    public void write(OutputDevice.Level level, String message) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return;
+        }
+        long position = ring.claim();
+        if (position < 0) {
+            dropped.incrementAndGet(); // the writer is a whole lap behind
+            return;
+        }
+        int slot = ring.slotOf(position);
+        levels[slot] = level;
+        messages[slot] = message;
+        ring.publish(position);
+        if (sleeping) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    @Override
+    public void flush() {
+        long target = ring.getClaimed();
+        while (written < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+    }
+
+    // Write out what is queued and stop the writer, a write failure is reported here
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (closeChannel) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Could not write the output: " + failure.getMessage(), failure);
+        }
+    }
+
+    // Messages lost because the ring was full or the sink was closed
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void drainLoop() {
+        while (true) {
+            //lines pile up in the buffer while there are more, the channel is written when it fills or the ring runs dry
+            if (drain() && !ring.isEmpty()) {
+                continue;
+            }
+            if (bytes.position() > 0) {
+                writeOut();
+            }
+            written = ring.getReleased();
+            if (closed) {
+                return;
+            }
+            //a burst usually continues, waking up from park on every line would cost the producers an unpark each
+            for (int spin = 0; spin < IDLE_SPINS && ring.isEmpty(); spin++) {
+                Thread.yield();
+            }
+            sleeping = true;
+            if (ring.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            sleeping = false;
+        }
+    }
+
+    // Encode up to one lap of filled slots into the buffer, false if there was nothing to take
+    private boolean drain() {
+        boolean any = false;
+        for (int taken = 0; taken < ring.capacity(); taken++) {
+            int slot = ring.peek();
+            if (slot < 0) {
+                break;
+            }
+            OutputDevice.Level level = levels[slot];
+            String message = messages[slot];
+            messages[slot] = null;
+            ring.release();
+            any = true;
+            encode(level, message);
+        }
+        return any;
+    }
+
+    private void encode(OutputDevice.Level level, String message) {
+        line.setLength(0);
+        if (level.getTag() != null) {
+            if (colors) {
+                line.append(TextColor.label(level));
+            } else {
+                line.append('[').append(level.getTag()).append(']');
+            }
+            line.append(' ');
+        }
+        line.append(message).append(System.lineSeparator());
+
+        byte[] encoded = line.toString().getBytes(StandardCharsets.UTF_8);
+        if (encoded.length > bytes.remaining()) {
+            writeOut();
+        }
+        if (encoded.length > bytes.capacity()) {
+            write(ByteBuffer.wrap(encoded));
+        } else {
+            bytes.put(encoded);
+        }
+    }
+
+    private void writeOut() {
+        ((Buffer) bytes).flip();
+        write(bytes);
+        ((Buffer) bytes).clear();
+    }
+
+    private void write(ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining() && failure == null) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            failure = e; // keep draining so producers are never stuck, the output is lost
+        }
+    }
+}
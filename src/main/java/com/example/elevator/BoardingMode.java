@@ -0,0 +1,19 @@
+package com.example.elevator;
+
+public enum BoardingMode {
+    FIFO,     // board by priority, stop at the first person who does not fit
+    KNAPSACK; // board the best-fitting mix of the floor queue, skipped people are guaranteed a place later
+
+    // Mode by its name in elevators.json ("boarding"), FIFO if none is given
+    public static BoardingMode fromName(String name) {
+        if (name == null || name.isEmpty()) {
+            return FIFO;
+        }
+        for (BoardingMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown boarding mode '" + name + "'. Use fifo or knapsack.");
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.elevator;
+
+import java.util.List;
+
+// Picks who boards from the front of a floor queue when not everyone fits.
+// Two cheap greedy passes (queue order, and priority per unit of the scarcer resource) stand in for an exact
+// two-constraint knapsack, and the better of the two is used.
+public class BoardingSelector {
+    public static final int MAX_CANDIDATES = 64;
+    public static final int STARVATION_LIMIT = 3; // times a person may be passed over before they must go first
+
+    private final boolean[] byOrder = new boolean[MAX_CANDIDATES];
+    private final boolean[] byDensity = new boolean[MAX_CANDIDATES];
+    private final int[] order = new int[MAX_CANDIDATES];
+    private final double[] density = new double[MAX_CANDIDATES];
+
+    // Marks the candidates that board in 'selected', candidates must be in queue order
+    public void select(List<Person> candidates, double freeWeight, double freeSpace,
+                       double carWeight, double carSpace, boolean[] selected) {
+        int count = candidates.size();
+        for (int i = 0; i < count; i++) {
+            selected[i] = false;
+        }
+
+        //starving people board first, in queue order; if one of them does not fit yet, nobody else may
+        //take their room, so the car fills up for them as it empties
+        for (int i = 0; i < count; i++) {
+            Person person = candidates.get(i);
+            if (person.getBoardingSkips() < STARVATION_LIMIT || person.getWeight() > carWeight || person.getSurface() > carSpace) {
+                continue;
+            }
+            if (person.getWeight() <= freeWeight && person.getSurface() <= freeSpace) {
+                selected[i] = true;
+                freeWeight -= person.getWeight();
+                freeSpace -= person.getSurface();
+            } else {
+                return;
+            }
+        }
+
+        double valueByOrder = fillInOrder(candidates, selected, freeWeight, freeSpace);
+        double valueByDensity = fillByDensity(candidates, selected, freeWeight, freeSpace);
+        boolean[] better = valueByDensity > valueByOrder ? byDensity : byOrder;
+        for (int i = 0; i < count; i++) {
+            selected[i] |= better[i];
+        }
+    }
+
+    private double fillInOrder(List<Person> candidates, boolean[] taken, double freeWeight, double freeSpace) {
+        double value = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            Person person = candidates.get(i);
+            byOrder[i] = !taken[i] && person.getWeight() <= freeWeight && person.getSurface() <= freeSpace;
+            if (byOrder[i]) {
+                freeWeight -= person.getWeight();
+                freeSpace -= person.getSurface();
+                value += person.getEffectivePriority();
+            }
+        }
+        return value;
+    }
+
+    private double fillByDensity(List<Person> candidates, boolean[] taken, double freeWeight, double freeSpace) {
+        int count = candidates.size();
+        if (freeWeight <= 0 || freeSpace <= 0) {
+            for (int i = 0; i < count; i++) {
+                byDensity[i] = false;
+            }
+            return 0;
+        }
+
+        //priority per share of the remaining capacity, insertion sort is plenty for a few dozen people
+        for (int i = 0; i < count; i++) {
+            Person person = candidates.get(i);
+            double share = person.getWeight() / freeWeight + person.getSurface() / freeSpace;
+            density[i] = person.getEffectivePriority() / Math.max(share, 1e-9);
+            int position = i;
+            while (position > 0 && density[order[position - 1]] < density[i]) {
+                order[position] = order[position - 1];
+                position--;
+            }
+            order[position] = i;
+            byDensity[i] = false;
+        }
+
+        double value = 0;
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            Person person = candidates.get(i);
+            if (!taken[i] && person.getWeight() <= freeWeight && person.getSurface() <= freeSpace) {
+                byDensity[i] = true;
+                freeWeight -= person.getWeight();
+                freeSpace -= person.getSurface();
+                value += person.getEffectivePriority();
+            }
+        }
+        return value;
+    }
+}
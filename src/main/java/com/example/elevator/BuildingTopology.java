@@ -0,0 +1,52 @@
+package com.example.elevator;
+
+import java.util.Arrays;
+
+public class BuildingTopology {
+    //position[i] is the travel cost from the lowest floor to lowest + i, in floor lengths
+    private final int lowestFloor;
+    private final double[] position;
+
+    // Every floor is one floor length apart
+    public static BuildingTopology uniform(int lowestFloor, int highestFloor) {
+        double[] legCosts = new double[Math.max(0, highestFloor - lowestFloor)];
+        Arrays.fill(legCosts, 1.0);
+        return new BuildingTopology(lowestFloor, legCosts);
+    }
+
+    // legCosts[i] is the cost of travelling from floor lowest + i to the floor above it, e.g. 1.5 for a tall lobby
+    public BuildingTopology(int lowestFloor, double[] legCosts) {
+        this.lowestFloor = lowestFloor;
+        this.position = new double[legCosts.length + 1];
+        for (int i = 0; i < legCosts.length; i++) {
+            if (legCosts[i] <= 0) {
+                throw new IllegalArgumentException("Travel cost between floors must be positive.");
+            }
+            position[i + 1] = position[i] + legCosts[i];
+        }
+    }
+
+    // Travel cost between two floors in floor lengths, floors outside the building count one length each
+    public double travelCost(int fromFloor, int toFloor) {
+        return Math.abs(positionOf(toFloor) - positionOf(fromFloor));
+    }
+
+    private double positionOf(int floor) {
+        int index = floor - lowestFloor;
+        if (index < 0) {
+            return index;
+        }
+        if (index >= position.length) {
+            return position[position.length - 1] + (index - position.length + 1);
+        }
+        return position[index];
+    }
+
+    public int getLowestFloor() {
+        return lowestFloor;
+    }
+
+    public int getHighestFloor() {
+        return lowestFloor + position.length - 1;
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.elevator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.zip.CRC32;
+
+// Binary snapshot of running agendas: car position, floor queues, people inside and their boost and timing state.
+// Layout: header, then per car the elevator, the people inside and every non-empty floor queue, then a CRC32.
+public class Checkpoint {
+    private static final int MAGIC = 0x454C5643; // "ELVC"
+    private static final short VERSION = 1;
+    private static final byte SINGLE = 0;
+    private static final byte GROUP = 1;
+
+    private static final byte FLAG_BOOST = 1;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private final boolean group;
+    private final long time;
+    private final long travelTimePerFloor;
+    private final long doorDwellTime;
+    private final List<Agenda> agendas;
+
+    private Checkpoint(boolean group, long time, long travelTimePerFloor, long doorDwellTime, List<Agenda> agendas) {
+        this.group = group;
+        this.time = time;
+        this.travelTimePerFloor = travelTimePerFloor;
+        this.doorDwellTime = doorDwellTime;
+        this.agendas = agendas;
+    }
+
+    // Save a single car, time is the agenda clock reading the state belongs to
+    public static void save(File file, Agenda agenda, long time) throws IOException {
+        write(file, SINGLE, time, 0, 0, Collections.singletonList(agenda));
+    }
+
+    public static void save(File file, ElevatorGroup group, long time) throws IOException {
+        List<Agenda> agendas = new ArrayList<>();
+        for (int car = 0; car < group.size(); car++) {
+            agendas.add(group.getAgenda(car));
+        }
+        write(file, GROUP, time, group.getTravelTimePerFloor(), group.getDoorDwellTime(), agendas);
+    }
+
+    // Every load builds new elevators, agendas and people, so one checkpoint can seed any number of runs.
+    // The shared allocator is moved past the restored IDs, so people created afterwards never reuse one.
+    public static Checkpoint load(File file) throws IOException {
+        return load(file, IDAllocator.shared());
+    }
+
+    // Same, for runs that number their people with their own allocator
+    public static Checkpoint load(File file, IDAllocator ids) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file.getName() + " is too large to be a checkpoint.");
+            }
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException(file.getName() + " was truncated while reading.");
+                }
+            }
+        }
+        ((Buffer) buffer).flip();
+
+        try {
+            if (buffer.remaining() < 4 || buffer.getInt() != MAGIC) {
+                throw new IOException(file.getName() + " is not an elevator checkpoint.");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException(file.getName() + " has checkpoint version " + version + ", expected " + VERSION + ".");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, buffer.limit() - 8);
+            if (buffer.getLong(buffer.limit() - 8) != crc.getValue()) {
+                throw new IOException(file.getName() + " is corrupt (checksum mismatch).");
+            }
+
+            boolean group = buffer.get() == GROUP;
+            long time = buffer.getLong();
+            long travelTimePerFloor = buffer.getLong();
+            long doorDwellTime = buffer.getLong();
+            int cars = buffer.getInt();
+            List<Agenda> agendas = new ArrayList<>(cars);
+            for (int car = 0; car < cars; car++) {
+                agendas.add(readAgenda(buffer, ids));
+            }
+            return new Checkpoint(group, time, travelTimePerFloor, doorDwellTime, agendas);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException(file.getName() + " is not a valid checkpoint: " + e.getMessage(), e);
+        }
+    }
+
+    public boolean isGroup() {
+        return group;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public List<Agenda> getAgendas() {
+        return agendas;
+    }
+
+    // Rebuild the group with its timing, single-car checkpoints get the default timing
+    public ElevatorGroup toGroup() {
+        ElevatorGroup restored = group
+                ? new ElevatorGroup(travelTimePerFloor, doorDwellTime)
+                : new ElevatorGroup(Simulation.DEFAULT_TRAVEL_TIME_PER_FLOOR, Simulation.DEFAULT_DOOR_DWELL_TIME);
+        for (Agenda agenda : agendas) {
+            restored.addCar(agenda.getElevator(), agenda);
+        }
+        return restored;
+    }
+
+    private static void write(File file, byte kind, long time, long travelTimePerFloor, long doorDwellTime,
+                              List<Agenda> agendas) throws IOException {
+        Writer out = new Writer();
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.put(kind);
+        out.putLong(time);
+        out.putLong(travelTimePerFloor);
+        out.putLong(doorDwellTime);
+        out.putInt(agendas.size());
+        for (Agenda agenda : agendas) {
+            agenda.drainHallCalls(); // calls still in the intake ring belong to the floor queues
+            writeAgenda(out, agenda);
+        }
+        ByteBuffer buffer = out.finish();
+
+        //write next to the old checkpoint and swap it in, so a crash never leaves half a file behind
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeAgenda(Writer out, Agenda agenda) {
+        Elevator elevator = agenda.getElevator();
+        out.putString(elevator.getId());
+        out.putInt(elevator.getMaxWeight());
+        out.putInt(elevator.getWidth());
+        out.putInt(elevator.getDepth());
+        int[] floors = elevator.getFloors();
+        out.putInt(floors.length);
+        for (int floor : floors) {
+            out.putInt(floor);
+        }
+        out.putInt(elevator.getCurrentFloor());
+        out.putString(elevator.getDispatch());
+        out.putString(elevator.getBoarding());
+
+        Queue<Person> inside = agenda.getQueueInside();
+        out.putInt(inside.size());
+        for (Person person : inside) {
+            writePerson(out, person);
+        }
+
+        int floorsWithPeople = 0;
+        for (Queue<Person> floorQueue : agenda.getQueuesByFloor().values()) {
+            if (!floorQueue.isEmpty()) {
+                floorsWithPeople++;
+            }
+        }
+        out.putInt(floorsWithPeople);
+        for (Map.Entry<Integer, Queue<Person>> entry : agenda.getQueuesByFloor().entrySet()) {
+            Queue<Person> floorQueue = entry.getValue();
+            if (floorQueue.isEmpty()) {
+                continue;
+            }
+            out.putInt(entry.getKey());
+            out.putInt(floorQueue.size());
+            for (Person person : floorQueue) { // queue order, so equal priorities keep their turn
+                writePerson(out, person);
+            }
+        }
+    }
+
+    private static Agenda readAgenda(ByteBuffer in, IDAllocator ids) {
+        String id = readString(in);
+        int numericID = IDAllocator.parse(id);
+        if (numericID >= 0) {
+            ids.advancePast(IDAllocator.kindOf(numericID), IDAllocator.sequenceOf(numericID));
+        }
+        int maxWeight = in.getInt();
+        int width = in.getInt();
+        int depth = in.getInt();
+        int[] floors = new int[in.getInt()];
+        for (int i = 0; i < floors.length; i++) {
+            floors[i] = in.getInt();
+        }
+        Elevator elevator = new Elevator(id, maxWeight, width, depth, floors, in.getInt());
+        elevator.setDispatch(readString(in));
+        elevator.setBoarding(readString(in));
+
+        PassengerQueue inside = new PassengerQueue();
+        for (int count = in.getInt(); count > 0; count--) {
+            inside.add(readPerson(in, ids));
+        }
+
+        Map<Integer, Queue<Person>> queuesByFloor = new HashMap<>();
+        for (int queues = in.getInt(); queues > 0; queues--) {
+            int floor = in.getInt();
+            FloorQueue floorQueue = new FloorQueue();
+            for (int count = in.getInt(); count > 0; count--) {
+                floorQueue.add(readPerson(in, ids));
+            }
+            queuesByFloor.put(floor, floorQueue);
+        }
+
+        //the agenda recomputes its load totals and indexes from the restored queues
+        return new Agenda(elevator, inside, queuesByFloor);
+    }
+
+    private static void writePerson(Writer out, Person person) {
+        out.putInt(person.getNumericID());
+        out.putInt(person.getBodyWeight());
+        out.putInt(person.getHeight());
+        out.putInt(person.getDestinationFloor());
+        out.putInt(person.getFloorsPassed());
+        out.put(person.hasPriorityBoost() ? FLAG_BOOST : 0);
+        out.putInt(person.getBoardingSkips());
+        out.putLong(person.getQueuedAt());
+        out.putLong(person.getBoardedAt());
+        out.putLong(person.getAlightedAt());
+        if (person instanceof Doctor) {
+            out.put((byte) ((Doctor) person).getEmergencyLevel());
+        } else if (person instanceof Nurse) {
+            out.put((byte) ((Nurse) person).getEmergencyLevel());
+        } else if (person instanceof Patient) {
+            out.put((byte) ((Patient) person).getWalkingAid().ordinal());
+        } else {
+            out.put((byte) 0);
+        }
+    }
+
+    private static Person readPerson(ByteBuffer in, IDAllocator ids) {
+        int id = in.getInt();
+        int weight = in.getInt();
+        int height = in.getInt();
+        int destinationFloor = in.getInt();
+        int floorsPassed = in.getInt();
+        boolean boost = (in.get() & FLAG_BOOST) != 0;
+        int boardingSkips = in.getInt();
+        long queuedAt = in.getLong();
+        long boardedAt = in.getLong();
+        long alightedAt = in.getLong();
+        byte extra = in.get();
+
+        //the kind lives in the top bits of the numeric ID
+        Person person;
+        switch (IDAllocator.kindOf(id)) {
+            case DOCTOR:
+                Doctor doctor = new Doctor(id, weight, height);
+                doctor.setEmergencyLevel(extra);
+                person = doctor;
+                break;
+            case NURSE:
+                Nurse nurse = new Nurse(id, weight, height);
+                nurse.setEmergencyLevel(extra);
+                person = nurse;
+                break;
+            case PATIENT:
+                Patient patient = new Patient(id, weight, height);
+                patient.setWalkingAid(WalkingAid.values()[extra]);
+                person = patient;
+                break;
+            case VISITOR:
+                person = new Visitor(id, weight, height);
+                break;
+            default:
+                throw new IllegalArgumentException("ID " + IDAllocator.render(id) + " does not belong to a person");
+        }
+        ids.advancePast(IDAllocator.kindOf(id), IDAllocator.sequenceOf(id));
+        person.setDestinationFloor(destinationFloor);
+        person.restoreState(floorsPassed, boost, boardingSkips, queuedAt, boardedAt, alightedAt);
+        return person;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Growable heap buffer, the whole checkpoint is built in memory and written with one channel call
+    private static class Writer {
+        private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                ((Buffer) buffer).flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+
+        private void put(byte value) {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        private void putShort(short value) {
+            ensure(2);
+            buffer.putShort(value);
+        }
+
+        private void putInt(int value) {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        private void putLong(long value) {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        private void putString(String value) {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private ByteBuffer finish() {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, buffer.position());
+            putLong(crc.getValue());
+            ((Buffer) buffer).flip();
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.elevator;
+
+// Directional collective control: on the way, stop only for drop-offs and for people going the same way.
+// When nobody ahead is going this way, ride to the farthest person ahead going the other way and turn there.
+public class CollectiveDispatch extends SweepDispatch {
+
+    @Override
+    protected int stopAhead(Agenda agenda, Elevator elevator, int currentFloor, int direction) {
+        int dropOff = agenda.getDestinationIndex().nextDestination(currentFloor, direction);
+        if (agenda.isFull()) {
+            return dropOff;
+        }
+
+        //the index keeps the floors with someone going each way, so no floor queue is walked
+        HallCallIndex hallCalls = agenda.getHallCallIndex();
+        int sameWay = hallCalls.nextGoing(currentFloor, direction, direction);
+        if (sameWay != HallCallIndex.NONE) {
+            return dropOff != NONE && (sameWay - dropOff) * direction >= 0 ? dropOff : sameWay; // the drop-off comes first (or at the same floor)
+        }
+        if (dropOff != NONE) {
+            return dropOff;
+        }
+        //nobody ahead goes this way, turn at the farthest waiting floor ahead
+        int farthest = hallCalls.nextNonEmpty(direction > 0 ? Integer.MAX_VALUE : -1, -direction);
+        return farthest != HallCallIndex.NONE && (farthest - currentFloor) * direction > 0 ? farthest : NONE;
+    }
+
+    @Override
+    public String getName() {
+        return "collective";
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.elevator;
+
+import java.io.PrintStream;
+
+// Writes on the calling thread, the default for interactive sessions where a prompt must show before input is read
+public class ConsoleSink implements OutputSink {
+    private final PrintStream out;
+
+    public ConsoleSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(OutputDevice.Level level, String message) {
+        String label = TextColor.label(level);
+        out.println(label == null ? message : label + " " + message);
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        out.flush(); // System.out stays open
+    }
+}
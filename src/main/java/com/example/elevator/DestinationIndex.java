@@ -0,0 +1,106 @@
+package com.example.elevator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+public class DestinationIndex {
+    //people inside the car grouped by the floor they get off at
+    private int[] counts = new int[16];
+    private List<Person>[] passengers = newLists(16);
+    private final BitSet pending = new BitSet();
+    private int size;
+
+    public void add(Person person) {
+        int floor = person.getDestinationFloor();
+        if (floor < 0) {
+            throw new IllegalArgumentException("Destination floor must not be negative: " + floor);
+        }
+        ensureCapacity(floor);
+
+        if (passengers[floor] == null) {
+            passengers[floor] = new ArrayList<>();
+        }
+        passengers[floor].add(person);
+        counts[floor]++;
+        pending.set(floor);
+        size++;
+    }
+
+    public boolean remove(Person person) {
+        int floor = person.getDestinationFloor();
+        if (!hasDestination(floor) || !passengers[floor].remove(person)) {
+            return false;
+        }
+        if (--counts[floor] == 0) {
+            pending.clear(floor);
+        }
+        size--;
+        return true;
+    }
+
+    public boolean hasDestination(int floor) {
+        return floor >= 0 && floor < counts.length && counts[floor] > 0;
+    }
+
+    public int count(int floor) {
+        return hasDestination(floor) ? counts[floor] : 0;
+    }
+
+    // People getting off at the floor, the list is owned by the index and must not be modified
+    public List<Person> peopleFor(int floor) {
+        return hasDestination(floor) ? passengers[floor] : Collections.<Person>emptyList();
+    }
+
+    public void clearFloor(int floor) {
+        if (hasDestination(floor)) {
+            size -= counts[floor];
+            counts[floor] = 0;
+            passengers[floor].clear();
+            pending.clear(floor);
+        }
+    }
+
+    // Closest floor strictly past 'from' in the direction (+1 up, -1 down) where someone gets off, or -1
+    public int nextDestination(int from, int direction) {
+        if (direction > 0) {
+            return pending.nextSetBit(Math.max(0, from + 1));
+        }
+        if (direction < 0 && from > 0) {
+            return pending.previousSetBit(from - 1);
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (int floor = pending.nextSetBit(0); floor >= 0; floor = pending.nextSetBit(floor + 1)) {
+            counts[floor] = 0;
+            passengers[floor].clear();
+        }
+        pending.clear();
+        size = 0;
+    }
+
+    private void ensureCapacity(int floor) {
+        if (floor < counts.length) {
+            return;
+        }
+        int capacity = Math.max(floor + 1, counts.length * 2);
+        int[] grownCounts = new int[capacity];
+        System.arraycopy(counts, 0, grownCounts, 0, counts.length);
+        List<Person>[] grownPassengers = newLists(capacity);
+        System.arraycopy(passengers, 0, grownPassengers, 0, passengers.length);
+        counts = grownCounts;
+        passengers = grownPassengers;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<Person>[] newLists(int capacity) {
+        return new List[capacity];
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.elevator;
+
+public interface DispatchStrategy {
+
+    // Floor the car should head to next, or its current floor if there is nothing to do
+    int nextDestination(Agenda agenda, Elevator elevator);
+
+    String getName();
+
+    // Travel and door times of the group the car runs in, for strategies that plan in time
+    default void setTiming(ElevatorGroup group) {
+    }
+
+    // New strategy by its name in elevators.json ("dispatch"), the priority policy if none is given
+    static DispatchStrategy create(String name) {
+        if (name == null || name.isEmpty()) {
+            return new PriorityDispatch();
+        }
+        switch (name.toLowerCase()) {
+            case "priority":
+                return new PriorityDispatch();
+            case "look":
+                return new LookDispatch();
+            case "scan":
+                return new ScanDispatch();
+            case "collective":
+                return new CollectiveDispatch();
+            case "planner":
+                return new RoutePlannerDispatch();
+            default:
+                throw new IllegalArgumentException("Unknown dispatch strategy '" + name + "'. Use priority, look, scan, collective or planner.");
+        }
+    }
+}
@@ -9,6 +9,18 @@ public class Doctor extends Person{
         this.emergencyLevel = 1;
     }
 
+    // IDs from the given allocator instead of the shared one, e.g. one allocator per simulation
+    public Doctor(IDAllocator ids, int weight, int height) {
+        super(ids.allocate(IDAllocator.Kind.DOCTOR), weight, height);
+        this.emergencyLevel = 1;
+    }
+
+    // Keeps an ID that was already allocated, e.g. when restoring a checkpoint
+    Doctor(int ID, int weight, int height) {
+        super(ID, weight, height);
+        this.emergencyLevel = 1;
+    }
+
     @Override
     public int getPriorityLevel() {
         // 4, 7, 9
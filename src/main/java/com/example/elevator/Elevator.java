@@ -11,9 +11,14 @@ public class Elevator implements Surface, Weight{
 
     private int[] floors;
     private int currentFloor;
+    private String dispatch; // routing strategy name, null for the default priority policy
+    private String boarding; // boarding mode name, null for the default FIFO boarding
+
+    // built on first use, Gson skips transient fields when reading elevators.json
+    private transient ServedFloors servedFloors;
 
     public Elevator(String ID, int maxWeight, int width, int depth, int floors[], int currentFloor) {
-        this.ID = IDGenerator.generateElevatorID();
+        this.ID = ID;
         this.maxWeight = maxWeight;
         this.width = width;
         this.depth = depth;
@@ -29,15 +34,18 @@ public class Elevator implements Surface, Weight{
         return maxWeight;
     }
 
+    // Move to the next served floor above, skip-stop cars pass the floors they do not serve
     public void moveUp() {
-        if (currentFloor < floors.length - 1) {
-            currentFloor++;
+        int next = getServedFloors().nextAbove(currentFloor);
+        if (next != ServedFloors.NONE) {
+            currentFloor = next;
         }
     }
 
     public void moveDown() {
-        if (currentFloor > 0) {
-            currentFloor--;
+        int next = getServedFloors().nextBelow(currentFloor);
+        if (next != ServedFloors.NONE) {
+            currentFloor = next;
         }
     }
 
@@ -65,12 +73,30 @@ public class Elevator implements Surface, Weight{
         return floors;
     }
 
-    public boolean canAccessFloor(int floor) {
-        for (int accessibleFloor : floors) {
-            if (accessibleFloor == floor) {
-                return true;
-            }
+    public String getDispatch() {
+        return dispatch;
+    }
+
+    public void setDispatch(String dispatch) {
+        this.dispatch = dispatch;
+    }
+
+    public String getBoarding() {
+        return boarding;
+    }
+
+    public void setBoarding(String boarding) {
+        this.boarding = boarding;
+    }
+
+    public ServedFloors getServedFloors() {
+        if (servedFloors == null) {
+            servedFloors = new ServedFloors(floors);
         }
-        return false;
+        return servedFloors;
+    }
+
+    public boolean canAccessFloor(int floor) {
+        return getServedFloors().contains(floor);
     }
 }
@@ -0,0 +1,158 @@
+package com.example.elevator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class ElevatorGroup {
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+    //costing one car takes well under a microsecond, only groups this large pay back the fork/join overhead
+    private static final int PARALLEL_CARS = 64;
+
+    private final List<Elevator> elevators = new ArrayList<>();
+    private final List<Agenda> agendas = new ArrayList<>();
+    private BuildingTopology topology;
+    private boolean isUniform = true;
+    private long travelTimePerFloor;
+    private long doorDwellTime;
+    private long[] costs = new long[0]; // per car, reused by every parallel selectCar
+
+    public ElevatorGroup(long travelTimePerFloor, long doorDwellTime) {
+        //a group controller owns several elevator/agenda pairs and shares hall calls between them
+        setTiming(travelTimePerFloor, doorDwellTime);
+    }
+
+    public void setTiming(long travelTimePerFloor, long doorDwellTime) {
+        if (travelTimePerFloor < 0 || doorDwellTime < 0) {
+            throw new IllegalArgumentException("Travel time and door dwell time must not be negative.");
+        }
+        this.travelTimePerFloor = travelTimePerFloor;
+        this.doorDwellTime = doorDwellTime;
+    }
+
+    public int addCar(Elevator elevator) {
+        return addCar(elevator, new Agenda(elevator, new PassengerQueue(), new HashMap<>()));
+    }
+
+    public int addCar(Elevator elevator, Agenda agenda) {
+        elevators.add(elevator);
+        agendas.add(agenda);
+        costs = new long[elevators.size()];
+
+        //grow the default uniform building so it covers every car
+        ServedFloors served = elevator.getServedFloors();
+        if (served.size() > 0 && (topology == null || isUniform)) {
+            int lowest = topology == null ? served.getLowest() : Math.min(topology.getLowestFloor(), served.getLowest());
+            int highest = topology == null ? served.getHighest() : Math.max(topology.getHighestFloor(), served.getHighest());
+            topology = BuildingTopology.uniform(lowest, highest);
+        }
+        return elevators.size() - 1;
+    }
+
+    // Use measured floor-to-floor travel costs instead of one floor length per floor
+    public void setTopology(BuildingTopology topology) {
+        this.topology = topology;
+        this.isUniform = false;
+    }
+
+    public BuildingTopology getTopology() {
+        return topology;
+    }
+
+    // Time for a car to travel between two floors, using the precomputed floor positions
+    public long travelTime(int fromFloor, int toFloor) {
+        if (topology == null) {
+            return Math.abs(toFloor - fromFloor) * travelTimePerFloor;
+        }
+        return Math.round(topology.travelCost(fromFloor, toFloor) * travelTimePerFloor);
+    }
+
+    // Queue the person on the car that can serve them soonest, returns the car index or -1 if no car can
+    public int assignHallCall(Person person, int startFloor, int destinationFloor) {
+        int car = selectCar(person, startFloor, destinationFloor);
+        if (car >= 0) {
+            agendas.get(car).addPersonToQueue(person, startFloor, destinationFloor);
+        }
+        return car;
+    }
+
+    public int selectCar(Person person, int startFloor, int destinationFloor) {
+        int weight = person.getWeight();
+        double surface = person.getSurface();
+        //lowest index wins ties so assignment stays deterministic
+        int best = -1;
+        long bestCost = UNREACHABLE;
+        if (costs.length < PARALLEL_CARS) {
+            for (int car = 0; car < costs.length; car++) {
+                long cost = estimateTimeToServe(car, weight, surface, startFloor, destinationFloor);
+                if (cost < bestCost) {
+                    best = car;
+                    bestCost = cost;
+                }
+            }
+            return best;
+        }
+
+        //every car is costed independently, so spread the evaluation over the common pool
+        long[] costs = this.costs;
+        IntStream.range(0, costs.length).parallel()
+                .forEach(car -> costs[car] = estimateTimeToServe(car, weight, surface, startFloor, destinationFloor));
+        for (int car = 0; car < costs.length; car++) {
+            if (costs[car] < bestCost) {
+                best = car;
+                bestCost = costs[car];
+            }
+        }
+        return best;
+    }
+
+    public long estimateTimeToServe(int car, int weight, double surface, int startFloor, int destinationFloor) {
+        Elevator elevator = elevators.get(car);
+        if (startFloor < 0 || destinationFloor < 0) {
+            return UNREACHABLE; // agendas only index non-negative floors
+        }
+        if (!elevator.canAccessFloor(startFloor) || !elevator.canAccessFloor(destinationFloor)) {
+            return UNREACHABLE;
+        }
+        if (weight > elevator.getWeight() || surface > elevator.getSurface()) {
+            return UNREACHABLE; // would not fit even in an empty car
+        }
+
+        Agenda agenda = agendas.get(car);
+        long travel = travelTime(elevator.getCurrentFloor(), startFloor);
+        long pendingStops = agenda.getActiveFloorCount() + agenda.getQueueInside().size();
+        long cost = travel + pendingStops * doorDwellTime;
+
+        //if the car is already committed beyond its capacity, the person waits for extra round trips
+        double freeWeight = agenda.getAvailableWeight() - agenda.getWaitingWeight();
+        double freeSpace = agenda.getAvailableSpace() - agenda.getWaitingSurface();
+        if (freeWeight < weight || freeSpace < surface) {
+            double overload = Math.max((weight - freeWeight) / elevator.getWeight(), (surface - freeSpace) / elevator.getSurface());
+            long trips = (long) Math.ceil(overload);
+            ServedFloors served = elevator.getServedFloors();
+            cost += trips * 2L * travelTime(served.getLowest(), served.getHighest());
+        }
+        return cost;
+    }
+
+    public int size() {
+        return elevators.size();
+    }
+
+    public Elevator getElevator(int car) {
+        return elevators.get(car);
+    }
+
+    public Agenda getAgenda(int car) {
+        return agendas.get(car);
+    }
+
+    public long getTravelTimePerFloor() {
+        return travelTimePerFloor;
+    }
+
+    public long getDoorDwellTime() {
+        return doorDwellTime;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.elevator;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// Streams elevators.json records field by field instead of going through reflection, e.g.
+// {"ID": "E01", "maxWeight": 800, "width": 2, "depth": 2, "floors": [1, 2, 3], "currentFloor": 1, "dispatch": "look"}
+public class ElevatorTypeAdapter extends TypeAdapter<Elevator> {
+
+    @Override
+    public void write(JsonWriter out, Elevator elevator) throws IOException {
+        if (elevator == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("ID").value(elevator.getId());
+        out.name("maxWeight").value(elevator.getMaxWeight());
+        out.name("width").value(elevator.getWidth());
+        out.name("depth").value(elevator.getDepth());
+        out.name("floors").beginArray();
+        for (int floor : elevator.getFloors()) {
+            out.value(floor);
+        }
+        out.endArray();
+        out.name("currentFloor").value(elevator.getCurrentFloor());
+        if (elevator.getDispatch() != null) {
+            out.name("dispatch").value(elevator.getDispatch());
+        }
+        if (elevator.getBoarding() != null) {
+            out.name("boarding").value(elevator.getBoarding());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Elevator read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String id = null;
+        int maxWeight = 0;
+        int width = 0;
+        int depth = 0;
+        int[] floors = null;
+        int currentFloor = 0;
+        String dispatch = null;
+        String boarding = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "ID":
+                    id = in.nextString();
+                    break;
+                case "maxWeight":
+                    maxWeight = in.nextInt();
+                    break;
+                case "width":
+                    width = in.nextInt();
+                    break;
+                case "depth":
+                    depth = in.nextInt();
+                    break;
+                case "floors":
+                    floors = readFloors(in);
+                    break;
+                case "currentFloor":
+                    currentFloor = in.nextInt();
+                    break;
+                case "dispatch":
+                    dispatch = in.nextString();
+                    break;
+                case "boarding":
+                    boarding = in.nextString();
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        if (id == null || floors == null) {
+            throw new JsonParseException("Missing required elevator attributes (ID or floors).");
+        }
+        Elevator elevator = new Elevator(id, maxWeight, width, depth, floors, currentFloor);
+        elevator.setDispatch(dispatch);
+        elevator.setBoarding(boarding);
+        return elevator;
+    }
+
+    private static int[] readFloors(JsonReader in) throws IOException {
+        int[] floors = new int[16];
+        int count = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (count == floors.length) {
+                floors = Arrays.copyOf(floors, count * 2);
+            }
+            floors[count++] = in.nextInt();
+        }
+        in.endArray();
+        return Arrays.copyOf(floors, count);
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.elevator;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+public class FloorQueue extends AbstractQueue<Person> {
+    // effective priorities are 1-9, plus 10 while boosted, so 32 buckets leave plenty of room
+    private static final int BUCKETS = 32;
+
+    //one FIFO bucket per effective priority, bit i of occupied is set while bucket i has people
+    private final Bucket[] buckets;
+    private int occupied;
+    private int size;
+
+    //rebucket scratch, kept so that re-sorting a floor does not allocate once it has grown
+    private Person[] scratch = new Person[0];
+
+    public FloorQueue() {
+        this.buckets = new Bucket[BUCKETS];
+    }
+
+    @Override
+    public boolean offer(Person person) {
+        int bucket = bucketOf(person.getEffectivePriority());
+        if (buckets[bucket] == null) {
+            buckets[bucket] = new Bucket();
+        }
+        buckets[bucket].addLast(person);
+        occupied |= 1 << bucket;
+        size++;
+        return true;
+    }
+
+    @Override
+    public Person peek() {
+        if (size == 0) {
+            return null;
+        }
+        return buckets[topBucket()].get(0);
+    }
+
+    @Override
+    public Person poll() {
+        if (size == 0) {
+            return null;
+        }
+        int bucket = topBucket();
+        Person person = buckets[bucket].removeAt(0);
+        afterRemoval(bucket);
+        return person;
+    }
+
+    // The person at the position in queue order, 0 is the head. Walks at most one step per priority.
+    public Person get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " of a queue of " + size + ".");
+        }
+        for (int bits = occupied; ; bits &= ~Integer.highestOneBit(bits)) {
+            Bucket bucket = buckets[31 - Integer.numberOfLeadingZeros(bits)];
+            if (index < bucket.size) {
+                return bucket.get(index);
+            }
+            index -= bucket.size;
+        }
+    }
+
+    // Take out the people at the front whose flag is set, chosen[i] stands for get(i). Returns how many were removed.
+    public int removeChosen(boolean[] chosen, int count) {
+        int removed = 0;
+        int index = 0;
+        for (int bits = occupied; bits != 0 && index < count; bits &= ~Integer.highestOneBit(bits)) {
+            int bucket = 31 - Integer.numberOfLeadingZeros(bits);
+            int bucketRemoved = buckets[bucket].removeChosen(chosen, index, count);
+            index += buckets[bucket].size + bucketRemoved;
+            removed += bucketRemoved;
+            size -= bucketRemoved;
+            if (buckets[bucket].size == 0) {
+                occupied &= ~(1 << bucket);
+            }
+        }
+        return removed;
+    }
+
+    // Move a person whose effective priority changed from oldPriority, without touching anyone else
+    public void reprioritize(Person person, int oldPriority) {
+        int bucket = bucketOf(oldPriority);
+        if (buckets[bucket] == null || !buckets[bucket].removeFirstOccurrence(person)) {
+            throw new NoSuchElementException("Person " + person.getID() + " is not queued with priority " + oldPriority + ".");
+        }
+        afterRemoval(bucket);
+        offer(person);
+    }
+
+    // Re-place everyone by their current effective priority, keeping the relative order of equal priorities
+    public void rebucket() {
+        int count = size;
+        if (scratch.length < count) {
+            scratch = new Person[Math.max(count, scratch.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            scratch[i] = poll();
+        }
+        for (int i = 0; i < count; i++) {
+            offer(scratch[i]);
+            scratch[i] = null;
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Bucket bucket : buckets) {
+            if (bucket != null) {
+                bucket.clear();
+            }
+        }
+        occupied = 0;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Person> action) {
+        for (int bits = occupied; bits != 0; bits &= ~Integer.highestOneBit(bits)) {
+            Bucket bucket = buckets[31 - Integer.numberOfLeadingZeros(bits)];
+            for (int i = 0; i < bucket.size; i++) {
+                action.accept(bucket.get(i));
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Person> iterator() {
+        //highest priority first, FIFO within a priority
+        return new Iterator<Person>() {
+            private int bucket = BUCKETS;
+            private Bucket current;
+            private int position;
+            private boolean removable;
+
+            @Override
+            public boolean hasNext() {
+                while (current == null || position == current.size) {
+                    if (bucket < 0) {
+                        return false;
+                    }
+                    bucket--;
+                    while (bucket >= 0 && (occupied & (1 << bucket)) == 0) {
+                        bucket--;
+                    }
+                    if (bucket < 0) {
+                        current = null;
+                        return false;
+                    }
+                    current = buckets[bucket];
+                    position = 0;
+                }
+                return true;
+            }
+
+            @Override
+            public Person next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                removable = true;
+                return current.get(position++);
+            }
+
+            @Override
+            public void remove() {
+                if (!removable) {
+                    throw new IllegalStateException();
+                }
+                removable = false;
+                current.removeAt(--position);
+                afterRemoval(bucket);
+            }
+        };
+    }
+
+    private int topBucket() {
+        return 31 - Integer.numberOfLeadingZeros(occupied);
+    }
+
+    private void afterRemoval(int bucket) {
+        size--;
+        if (buckets[bucket].size == 0) {
+            occupied &= ~(1 << bucket);
+        }
+    }
+
+    private static int bucketOf(int priority) {
+        return Math.max(0, Math.min(BUCKETS - 1, priority));
+    }
+
+    // Ring buffer with index access, which ArrayDeque does not offer
+    private static final class Bucket {
+        private Person[] people = new Person[8];
+        private int head;
+        private int size;
+
+        Person get(int index) {
+            return people[(head + index) & (people.length - 1)];
+        }
+
+        void addLast(Person person) {
+            if (size == people.length) {
+                grow();
+            }
+            people[(head + size) & (people.length - 1)] = person;
+            size++;
+        }
+
+        Person removeAt(int index) {
+            int mask = people.length - 1;
+            Person person = people[(head + index) & mask];
+            if (index == 0) {
+                people[head] = null;
+                head = (head + 1) & mask;
+            } else {
+                //shift the people behind one place forward
+                for (int i = index; i < size - 1; i++) {
+                    people[(head + i) & mask] = people[(head + i + 1) & mask];
+                }
+                people[(head + size - 1) & mask] = null;
+            }
+            size--;
+            return person;
+        }
+
+        boolean removeFirstOccurrence(Person person) {
+            for (int i = 0; i < size; i++) {
+                if (get(i) == person) {
+                    removeAt(i);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Remove the people whose flag chosen[offset + i] is set, in one compacting pass
+        int removeChosen(boolean[] chosen, int offset, int count) {
+            int mask = people.length - 1;
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                Person person = people[(head + i) & mask];
+                if (offset + i < count && chosen[offset + i]) {
+                    continue;
+                }
+                people[(head + kept++) & mask] = person;
+            }
+            for (int i = kept; i < size; i++) {
+                people[(head + i) & mask] = null;
+            }
+            int removed = size - kept;
+            size = kept;
+            return removed;
+        }
+
+        void clear() {
+            Arrays.fill(people, null);
+            head = 0;
+            size = 0;
+        }
+
+        private void grow() {
+            Person[] grown = new Person[people.length * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = get(i);
+            }
+            people = grown;
+            head = 0;
+        }
+    }
+}
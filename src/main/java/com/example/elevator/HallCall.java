@@ -0,0 +1,31 @@
+package com.example.elevator;
+
+public class HallCall {
+    private final long time;
+    private final Person person;
+    private final int startFloor;
+    private final int destinationFloor;
+
+    public HallCall(long time, Person person, int startFloor, int destinationFloor) {
+        this.time = time;
+        this.person = person;
+        this.startFloor = startFloor;
+        this.destinationFloor = destinationFloor;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public Person getPerson() {
+        return person;
+    }
+
+    public int getStartFloor() {
+        return startFloor;
+    }
+
+    public int getDestinationFloor() {
+        return destinationFloor;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.elevator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HallCallBuffer {
+
+    public interface Consumer {
+        void accept(Person person, int startFloor, int destinationFloor, long queuedAt);
+    }
+
+    private final MultiProducerRing ring;
+    private final Person[] people;
+    private final int[] startFloors;
+    private final int[] destinationFloors;
+    private final long[] queuedAt;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public HallCallBuffer(int capacity) {
+        this.ring = new MultiProducerRing(capacity);
+        this.people = new Person[capacity];
+        this.startFloors = new int[capacity];
+        this.destinationFloors = new int[capacity];
+        this.queuedAt = new long[capacity];
+    }
+
+    // Publish a call from any thread, never blocks, returns false if the ring is full
+    public boolean offer(Person person, int startFloor, int destinationFloor, long time) {
+        long position = ring.claim();
+        if (position < 0) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        int slot = ring.slotOf(position);
+        people[slot] = person;
+        startFloors[slot] = startFloor;
+        destinationFloors[slot] = destinationFloor;
+        queuedAt[slot] = time;
+        ring.publish(position);
+        return true;
+    }
+
+    // Hand up to max published calls to the consumer, must only be called from the dispatcher thread
+    public int drain(Consumer consumer, int max) {
+        int drained = 0;
+        while (drained < max) {
+            int slot = ring.peek();
+            if (slot < 0) {
+                break;
+            }
+            Person person = people[slot];
+            int startFloor = startFloors[slot];
+            int destinationFloor = destinationFloors[slot];
+            long time = queuedAt[slot];
+            people[slot] = null;
+            ring.release();
+            drained++;
+            consumer.accept(person, startFloor, destinationFloor, time);
+        }
+        return drained;
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    public int capacity() {
+        return ring.capacity();
+    }
+
+    // Calls turned away because the ring was full
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.elevator;
+
+import java.util.Arrays;
+
+public class HallCallIndex {
+    public static final int NONE = -1;
+
+    //segment tree over floors, each node keeps the floor with the highest head priority below it
+    private int capacity;
+    private int[] priorities;
+    private int[] best;
+
+    //per travel direction, how many people wait on each floor, and a tree of those floors where each node
+    //keeps some floor below it with anyone waiting, or NONE
+    private int[] goingUp;
+    private int[] goingDown;
+    private int[] upFloors;
+    private int[] downFloors;
+
+    public HallCallIndex(int floors) {
+        allocate(Math.max(1, Integer.highestOneBit(Math.max(1, floors - 1)) << 1));
+    }
+
+    // Record the effective priority of the person at the head of a floor queue, or NONE if it is empty
+    public void update(int floor, int headPriority) {
+        if (floor < 0) {
+            throw new IllegalArgumentException("Floor must not be negative: " + floor);
+        }
+        if (floor >= capacity) {
+            grow(floor);
+        }
+
+        priorities[floor] = headPriority;
+        int node = floor + capacity;
+        best[node] = headPriority == NONE ? NONE : floor;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            best[node] = better(best[2 * node], best[2 * node + 1]);
+        }
+    }
+
+    // One more (delta 1) or one fewer (delta -1) person waiting on the floor to travel in the direction (+1 up, -1 down)
+    public void addWaiting(int floor, int travel, int delta) {
+        if (travel == 0) {
+            return; // already where they want to be, nobody goes anywhere
+        }
+        if (floor < 0) {
+            throw new IllegalArgumentException("Floor must not be negative: " + floor);
+        }
+        if (floor >= capacity) {
+            grow(floor);
+        }
+        int[] counts = travel > 0 ? goingUp : goingDown;
+        int[] floors = travel > 0 ? upFloors : downFloors;
+        int before = counts[floor];
+        counts[floor] = before + delta;
+        if ((before > 0) == (counts[floor] > 0)) {
+            return; // the floor stays in or out of the tree
+        }
+        int node = floor + capacity;
+        floors[node] = counts[floor] > 0 ? floor : NONE;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            floors[node] = floors[2 * node] != NONE ? floors[2 * node] : floors[2 * node + 1];
+        }
+    }
+
+    // Closest floor strictly past 'from' in the direction where someone waits to travel in 'travel'
+    public int nextGoing(int from, int direction, int travel) {
+        return next(travel > 0 ? upFloors : downFloors, from, direction);
+    }
+
+    public boolean isEmpty() {
+        return best[1] == NONE;
+    }
+
+    public int getHeadPriority(int floor) {
+        return floor >= 0 && floor < capacity ? priorities[floor] : NONE;
+    }
+
+    // Floor with the highest-priority waiting person, lowest floor on ties
+    public int topFloor() {
+        return best[1];
+    }
+
+    // Highest-priority floor between lo and hi inclusive, lowest floor on ties
+    public int bestInRange(int lo, int hi) {
+        lo = Math.max(lo, 0);
+        hi = Math.min(hi, capacity - 1);
+        if (lo > hi) {
+            return NONE;
+        }
+
+        int left = NONE;
+        int right = NONE;
+        for (int l = lo + capacity, r = hi + capacity + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                left = better(left, best[l++]);
+            }
+            if ((r & 1) == 1) {
+                right = better(best[--r], right);
+            }
+        }
+        return better(left, right);
+    }
+
+    // Closest non-empty floor strictly past 'from' in the direction (+1 up, -1 down)
+    public int nextNonEmpty(int from, int direction) {
+        return next(best, from, direction);
+    }
+
+    // Works on any tree whose nodes are NONE when nothing below them is set
+    private int next(int[] tree, int from, int direction) {
+        if (direction > 0) {
+            return from + 1 < capacity ? firstFrom(tree, 1, 0, capacity - 1, Math.max(0, from + 1)) : NONE;
+        }
+        if (direction < 0) {
+            return from > 0 ? lastUpTo(tree, 1, 0, capacity - 1, Math.min(from - 1, capacity - 1)) : NONE;
+        }
+        return NONE;
+    }
+
+    private int firstFrom(int[] tree, int node, int nodeLo, int nodeHi, int lo) {
+        if (nodeHi < lo || tree[node] == NONE) {
+            return NONE;
+        }
+        if (nodeLo == nodeHi) {
+            return nodeLo;
+        }
+        int mid = (nodeLo + nodeHi) >>> 1;
+        int found = firstFrom(tree, 2 * node, nodeLo, mid, lo);
+        return found != NONE ? found : firstFrom(tree, 2 * node + 1, mid + 1, nodeHi, lo);
+    }
+
+    private int lastUpTo(int[] tree, int node, int nodeLo, int nodeHi, int hi) {
+        if (nodeLo > hi || tree[node] == NONE) {
+            return NONE;
+        }
+        if (nodeLo == nodeHi) {
+            return nodeLo;
+        }
+        int mid = (nodeLo + nodeHi) >>> 1;
+        int found = lastUpTo(tree, 2 * node + 1, mid + 1, nodeHi, hi);
+        return found != NONE ? found : lastUpTo(tree, 2 * node, nodeLo, mid, hi);
+    }
+
+    private int better(int leftFloor, int rightFloor) {
+        if (leftFloor == NONE) {
+            return rightFloor;
+        }
+        if (rightFloor == NONE) {
+            return leftFloor;
+        }
+        return priorities[rightFloor] > priorities[leftFloor] ? rightFloor : leftFloor;
+    }
+
+    private void grow(int floor) {
+        int[] oldPriorities = priorities;
+        int[] oldUp = goingUp;
+        int[] oldDown = goingDown;
+        int newCapacity = capacity;
+        while (newCapacity <= floor) {
+            newCapacity <<= 1;
+        }
+        allocate(newCapacity);
+        for (int f = 0; f < oldPriorities.length; f++) {
+            if (oldPriorities[f] != NONE) {
+                update(f, oldPriorities[f]);
+            }
+            if (oldUp[f] > 0) {
+                addWaiting(f, 1, oldUp[f]);
+            }
+            if (oldDown[f] > 0) {
+                addWaiting(f, -1, oldDown[f]);
+            }
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        capacity = newCapacity;
+        priorities = new int[capacity];
+        best = new int[2 * capacity];
+        goingUp = new int[capacity];
+        goingDown = new int[capacity];
+        upFloors = new int[2 * capacity];
+        downFloors = new int[2 * capacity];
+        Arrays.fill(priorities, NONE);
+        Arrays.fill(best, NONE);
+        Arrays.fill(upFloors, NONE);
+        Arrays.fill(downFloors, NONE);
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.elevator;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IDAllocator {
+
+    public enum Kind {
+        ELEVATOR('E', 2), PATIENT('P', 4), VISITOR('V', 4), NURSE('N', 4), DOCTOR('D', 4);
+
+        private final char prefix;
+        private final int digits;
+
+        Kind(char prefix, int digits) {
+            this.prefix = prefix;
+            this.digits = digits;
+        }
+
+        public char getPrefix() {
+            return prefix;
+        }
+
+        public static Kind fromPrefix(char prefix) {
+            for (Kind kind : values()) {
+                if (kind.prefix == prefix) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    //numeric IDs keep the kind in the top bits and the sequence number in the rest
+    private static final int KIND_SHIFT = 28;
+    public static final int MAX_SEQUENCE = (1 << KIND_SHIFT) - 1;
+
+    //sequence numbers are reserved in blocks, so the sidecar is written once per block and not per ID
+    private static final int BLOCK_SIZE = 64;
+
+    public static final String DEFAULT_SIDECAR = "ids.properties";
+    private static final String ELEVATOR_FILE = "elevators.json";
+    private static final String PEOPLE_FILE = "people.json";
+
+    private static IDAllocator shared;
+
+    private final File sidecar;
+    private final AtomicInteger[] next = new AtomicInteger[Kind.values().length];
+    private final AtomicInteger[] reserved = new AtomicInteger[Kind.values().length];
+
+    // Allocator that persists its high-water marks in the sidecar file, or in memory only if it is null
+    public IDAllocator(File sidecar) {
+        this.sidecar = sidecar;
+        for (Kind kind : Kind.values()) {
+            next[kind.ordinal()] = new AtomicInteger(1);
+            reserved[kind.ordinal()] = new AtomicInteger(sidecar == null ? MAX_SEQUENCE : 0);
+        }
+    }
+
+    // Process-wide allocator behind IDGenerator, seeded from the sidecar or from the data files once
+    public static synchronized IDAllocator shared() {
+        if (shared == null) {
+            IDAllocator allocator = new IDAllocator(new File(DEFAULT_SIDECAR));
+            try {
+                if (!allocator.loadSidecar()) {
+                    RecordJournal.readIDs(ELEVATOR_FILE, allocator::seed);
+                    RecordJournal.readIDs(PEOPLE_FILE, allocator::seed);
+                }
+            } catch (IOException e) {
+                OutputDevice.printWarning("Could not read existing IDs, numbering starts from 1: " + e.getMessage());
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(allocator::close));
+            shared = allocator;
+        }
+        return shared;
+    }
+
+    public int allocate(Kind kind) {
+        int sequence = next[kind.ordinal()].getAndIncrement();
+        if (sequence > MAX_SEQUENCE) {
+            throw new IllegalStateException("Ran out of " + kind.name().toLowerCase() + " IDs.");
+        }
+        if (sequence > reserved[kind.ordinal()].get()) {
+            reserve(kind, sequence);
+        }
+        return (kind.ordinal() << KIND_SHIFT) | sequence;
+    }
+
+    // Make sure the next allocated sequence number of this kind is above the given one
+    public void advancePast(Kind kind, int sequence) {
+        AtomicInteger counter = next[kind.ordinal()];
+        int current;
+        while ((current = counter.get()) <= sequence) {
+            if (counter.compareAndSet(current, sequence + 1)) {
+                break;
+            }
+        }
+    }
+
+    public static Kind kindOf(int id) {
+        return Kind.values()[id >>> KIND_SHIFT];
+    }
+
+    public static int sequenceOf(int id) {
+        return id & MAX_SEQUENCE;
+    }
+
+    // Legacy text form, e.g. P0042 or E03, longer numbers simply get more digits
+    public static String render(int id) {
+        Kind kind = kindOf(id);
+        String digits = Integer.toString(sequenceOf(id));
+        StringBuilder text = new StringBuilder(1 + Math.max(kind.digits, digits.length()));
+        text.append(kind.prefix);
+        for (int pad = digits.length(); pad < kind.digits; pad++) {
+            text.append('0');
+        }
+        return text.append(digits).toString();
+    }
+
+    // Numeric form of a legacy ID, or -1 if it is not one
+    public static int parse(String text) {
+        if (text == null || text.length() < 2) {
+            return -1;
+        }
+        Kind kind = Kind.fromPrefix(text.charAt(0));
+        if (kind == null) {
+            return -1;
+        }
+        try {
+            int sequence = Integer.parseInt(text.substring(1));
+            return sequence < 0 || sequence > MAX_SEQUENCE ? -1 : (kind.ordinal() << KIND_SHIFT) | sequence;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Write the exact high-water marks so a clean restart continues without gaps
+    public synchronized void close() {
+        if (sidecar == null) {
+            return;
+        }
+        for (Kind kind : Kind.values()) {
+            reserved[kind.ordinal()].set(next[kind.ordinal()].get() - 1);
+        }
+        try {
+            writeSidecar(null, 0);
+        } catch (IOException e) {
+            OutputDevice.printError("Failed to save ID high-water marks: " + e.getMessage());
+        }
+    }
+
+    private synchronized void reserve(Kind kind, int sequence) {
+        AtomicInteger mark = reserved[kind.ordinal()];
+        if (sequence <= mark.get()) {
+            return; // another thread already reserved this block
+        }
+        //the block must be on disk before any thread may hand out IDs from it
+        int block = Math.min(MAX_SEQUENCE, sequence + BLOCK_SIZE - 1);
+        try {
+            writeSidecar(kind, block);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to reserve " + kind.name().toLowerCase() + " IDs.", e);
+        }
+        mark.set(block);
+    }
+
+    private boolean loadSidecar() throws IOException {
+        if (sidecar == null || !sidecar.exists()) {
+            return false;
+        }
+        Properties marks = new Properties();
+        try (Reader reader = new InputStreamReader(new FileInputStream(sidecar), StandardCharsets.UTF_8)) {
+            marks.load(reader);
+        }
+        for (Kind kind : Kind.values()) {
+            String mark = marks.getProperty(String.valueOf(kind.prefix));
+            if (mark != null) {
+                try {
+                    advancePast(kind, Integer.parseInt(mark.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid high-water mark for " + kind.prefix + " in " + sidecar.getName() + ".");
+                }
+            }
+        }
+        return true;
+    }
+
+    private void seed(String id) {
+        int numeric = parse(id);
+        if (numeric >= 0) {
+            advancePast(kindOf(numeric), sequenceOf(numeric));
+        }
+    }
+
+    // Current marks, with the one of 'changed' replaced by 'mark' if it is not null
+    private void writeSidecar(Kind changed, int mark) throws IOException {
+        Properties marks = new Properties();
+        for (Kind kind : Kind.values()) {
+            int value = kind == changed ? mark : reserved[kind.ordinal()].get();
+            marks.setProperty(String.valueOf(kind.prefix), String.valueOf(value));
+        }
+        File temporary = new File(sidecar.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temporary), StandardCharsets.UTF_8)) {
+            marks.store(writer, "Highest reserved ID per prefix");
+        }
+        Files.move(temporary.toPath(), sidecar.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
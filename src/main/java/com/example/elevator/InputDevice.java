@@ -6,6 +6,7 @@ public class InputDevice {
     private static final Scanner scanner = new Scanner(System.in);
 
     public static String getInput() {
+        OutputDevice.flush(); // the prompt has to be out before we wait for an answer
         return scanner.nextLine();
     }
 }
@@ -0,0 +1,15 @@
+package com.example.elevator;
+
+// LOOK: sweep in one direction, turn around as soon as nothing is left ahead
+public class LookDispatch extends SweepDispatch {
+
+    @Override
+    protected int stopAhead(Agenda agenda, Elevator elevator, int currentFloor, int direction) {
+        return nearestStop(agenda, currentFloor, direction);
+    }
+
+    @Override
+    public String getName() {
+        return "look";
+    }
+}
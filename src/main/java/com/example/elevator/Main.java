@@ -1,24 +1,45 @@
 package com.example.elevator;
 
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import java.io.*;
 import java.util.*;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.example.elevator.CustomExceptions.InvalidCommandException;
 import com.example.elevator.CustomExceptions.InvalidNumberFormatException;
 
 public class Main {
     private static final String ELEVATOR_FILE = "elevators.json";
     private static final String PEOPLE_FILE = "people.json";
+    private static final String OPTIONS = "Try one of the following options:"
+            + "\n- demo: Run an instant demo"
+            + "\n- load: Load elevator from memory"
+            + "\n- new: New elevator"
+            + "\n- group: Load every elevator from memory as one group"
+            + "\n- montecarlo [runs] [seed] [calls_per_run]: Simulate many randomized days with every elevator from memory"
+            + "\n- replay <trace.jsonl> [travel_ms_per_floor] [door_dwell_ms]: Replay recorded hall calls with every elevator from memory"
+            + "\n- traffic <profile:minutes>[,...] [seed] [rate_scale]: Simulate a day of synthetic hospital traffic with every elevator from memory";
+
+    // opened on first use, new records are appended to a journal next to each file
+    //records are read and written with the streaming adapters, never through reflection or a JsonObject tree
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Elevator.class, new ElevatorTypeAdapter())
+            .registerTypeHierarchyAdapter(Person.class, new PersonTypeAdapter())
+            .create();
+
+    private static RecordJournal elevatorJournal;
+    private static RecordJournal peopleJournal;
+    private static PeopleStore peopleStore;
 
     public static void main(String[] args) {
         Application app = new Application();
         Scanner scanner = new Scanner(System.in);
-        if (args.length == 1) {
+        if (args.length == 1 || (args.length > 1 && (args[0].equalsIgnoreCase("montecarlo") || args[0].equalsIgnoreCase("replay")
+                || args[0].equalsIgnoreCase("traffic")))) {
             String option = args[0].toLowerCase();
+            configureOutput(option.equals("montecarlo") || option.equals("replay") || option.equals("traffic"));
 
             switch (option) {
                 case "demo":
@@ -30,16 +51,28 @@ public class Main {
                 case "new":
                     newElevator(app);
                     break;
+                case "group":
+                    loadElevatorGroup(app);
+                    break;
+                case "montecarlo":
+                    runMonteCarlo(args);
+                    break;
+                case "replay":
+                    runReplay(args);
+                    break;
+                case "traffic":
+                    runTraffic(args);
+                    break;
                 case "exit":
                     OutputDevice.printInfo("Exiting the application. Goodbye!");
                     scanner.close();
                     return;
                 default:
-                    OutputDevice.printError("Invalid option. Try one of the following options:\n- demo: Run an instant demo\n- load: Load elevator from memory\n- new: New elevator");
+                    OutputDevice.printError("Invalid option. " + OPTIONS);
                     break;
             }
         } else {
-            OutputDevice.printError("No option selected. Try one of the following options:\n- demo: Run an instant demo\n- load: Load elevator from memory\n- new: New elevator");
+            OutputDevice.printError("No option selected. " + OPTIONS);
         }
     }
 
@@ -49,6 +82,7 @@ public class Main {
         OutputDevice.print(" - Add Elevator: elevator maximum_weight width depth current_floor");
         OutputDevice.print(" - Add Person: person type weight height current_floor destination_floor [extra: emergency level for staff or walking aid for patients]");
         OutputDevice.print(" - Start Session: start");
+        OutputDevice.print(" - Run Headless Simulation: simulate [travel_ms_per_floor] [door_dwell_ms]");
         OutputDevice.print("Enter a command (or type 'exit' to quit demo mode):");
 
         while (true) {
@@ -106,8 +140,16 @@ public class Main {
                         app.startSession();
                         break;
 
+                    case "simulate":
+                        try {
+                            runSimulation(app, inputParts);
+                        } catch (InvalidNumberFormatException e) {
+                            OutputDevice.printError(e.getMessage());
+                        }
+                        break;
+
                     default:
-                        throw new InvalidCommandException("Unknown command: '" + command + "'. Try 'elevator', 'person', or 'start'.");
+                        throw new InvalidCommandException("Unknown command: '" + command + "'. Try 'elevator', 'person', 'start' or 'simulate'.");
                 }
             } catch (InvalidCommandException e) {
                 OutputDevice.printError(e.getMessage());
@@ -115,6 +157,119 @@ public class Main {
         }
     }
 
+    private static void runMonteCarlo(String[] args) {
+        try {
+            int runs = args.length >= 2 ? parseInt(args[1]) : ScenarioRunner.DEFAULT_RUNS;
+            long seed = args.length >= 3 ? parseLong(args[2]) : System.currentTimeMillis();
+            int callsPerRun = args.length >= 4 ? parseInt(args[3]) : ScenarioRunner.DEFAULT_CALLS_PER_RUN;
+            List<Elevator> elevators = new ArrayList<>();
+            for (String record : elevatorJournal().records()) {
+                elevators.add(GSON.fromJson(record, Elevator.class));
+            }
+            if (elevators.isEmpty()) {
+                OutputDevice.printError("No elevators found in memory.");
+                return;
+            }
+
+            OutputDevice.printInfo("Simulating " + runs + " days with " + elevators.size() + " elevators (seed " + seed + ")...");
+            ScenarioRunner runner = new ScenarioRunner(elevators, TrafficMix.HOSPITAL, Simulation.DEFAULT_TRAVEL_TIME_PER_FLOOR,
+                    Simulation.DEFAULT_DOOR_DWELL_TIME, callsPerRun, ScenarioRunner.DEFAULT_MEAN_ARRIVAL_GAP);
+            runner.run(runs, seed, Runtime.getRuntime().availableProcessors()).print();
+            printSeed(seed);
+        } catch (InvalidNumberFormatException | IllegalArgumentException | JsonParseException e) {
+            OutputDevice.printError(e.getMessage());
+        } catch (IOException e) {
+            OutputDevice.printError("Failed to load elevators: " + e.getMessage());
+        }
+    }
+
+    private static void runReplay(String[] args) {
+        if (args.length < 2) {
+            OutputDevice.printError("Usage: replay <trace.jsonl> [travel_ms_per_floor] [door_dwell_ms]");
+            return;
+        }
+        try {
+            long travelTime = args.length >= 3 ? parseInt(args[2]) : Simulation.DEFAULT_TRAVEL_TIME_PER_FLOOR;
+            long dwellTime = args.length >= 4 ? parseInt(args[3]) : Simulation.DEFAULT_DOOR_DWELL_TIME;
+            ElevatorGroup group = new ElevatorGroup(travelTime, dwellTime);
+            for (String record : elevatorJournal().records()) {
+                group.addCar(GSON.fromJson(record, Elevator.class));
+            }
+            if (group.size() == 0) {
+                OutputDevice.printError("No elevators found in memory.");
+                return;
+            }
+
+            OutputDevice.printInfo("Replaying " + args[1] + " with " + group.size() + " elevators...");
+            try (TraceReader trace = new TraceReader(args[1])) {
+                Simulation simulation = new Simulation(group);
+                simulation.setArrivalSource(trace);
+                SimulationSummary summary = simulation.run();
+                if (trace.getSkippedLines() > 0) {
+                    OutputDevice.printWarning("Skipped " + trace.getSkippedLines() + " unreadable lines of the trace.");
+                }
+                summary.print();
+            }
+        } catch (InvalidNumberFormatException | IllegalArgumentException | JsonParseException e) {
+            OutputDevice.printError(e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
+            OutputDevice.printError("Failed to replay trace: " + e.getMessage());
+        }
+    }
+
+    private static void runTraffic(String[] args) {
+        if (args.length < 2) {
+            OutputDevice.printError("Usage: traffic <profile:minutes>[,...] [seed] [rate_scale], e.g. traffic morning:60,visiting:120,codeblue:5,lunch:60 42");
+            return;
+        }
+        try {
+            long seed = args.length >= 3 ? parseLong(args[2]) : System.currentTimeMillis();
+            double rateScale = args.length >= 4 ? parseDouble(args[3]) : 1.0;
+            List<Elevator> elevators = new ArrayList<>();
+            for (String record : elevatorJournal().records()) {
+                elevators.add(GSON.fromJson(record, Elevator.class));
+            }
+            if (elevators.isEmpty()) {
+                OutputDevice.printError("No elevators found in memory.");
+                return;
+            }
+
+            TrafficGenerator traffic = new TrafficGenerator(elevators, seed, rateScale, new IDAllocator(null));
+            for (String phase : args[1].split(",")) {
+                String[] parts = phase.split(":");
+                if (parts.length != 2) {
+                    OutputDevice.printError("Invalid phase: '" + phase + "'. Use profile:minutes, e.g. morning:60");
+                    return;
+                }
+                traffic.addPhase(TrafficProfile.named(parts[0]), TimeUnit.MINUTES.toMillis(parseInt(parts[1])));
+            }
+
+            ElevatorGroup group = new ElevatorGroup(Simulation.DEFAULT_TRAVEL_TIME_PER_FLOOR, Simulation.DEFAULT_DOOR_DWELL_TIME);
+            for (Elevator elevator : elevators) {
+                group.addCar(elevator);
+            }
+            OutputDevice.printInfo("Simulating " + args[1] + " with " + group.size() + " elevators (seed " + seed + ")...");
+            Simulation simulation = new Simulation(group);
+            simulation.setArrivalSource(traffic);
+            simulation.run().print();
+            printSeed(seed);
+        } catch (InvalidNumberFormatException | IllegalArgumentException | JsonParseException e) {
+            OutputDevice.printError(e.getMessage());
+        } catch (IOException e) {
+            OutputDevice.printError("Failed to load elevators: " + e.getMessage());
+        }
+    }
+
+    private static void runSimulation(Application app, String[] inputParts) throws InvalidNumberFormatException {
+        long travelTime = inputParts.length >= 2 ? parseInt(inputParts[1]) : Simulation.DEFAULT_TRAVEL_TIME_PER_FLOOR;
+        long dwellTime = inputParts.length >= 3 ? parseInt(inputParts[2]) : Simulation.DEFAULT_DOOR_DWELL_TIME;
+        try {
+            app.runSimulation(travelTime, dwellTime);
+        } catch (IllegalArgumentException e) {
+            OutputDevice.printError(e.getMessage());
+        }
+    }
+
     private static int parseInt(String value) throws InvalidNumberFormatException {
         try {
             return Integer.parseInt(value);
@@ -123,6 +278,27 @@ public class Main {
         }
     }
 
+    private static long parseLong(String value) throws InvalidNumberFormatException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidNumberFormatException("Invalid number format: '" + value + "'. Please enter a valid integer.");
+        }
+    }
+
+    private static double parseDouble(String value) throws InvalidNumberFormatException {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidNumberFormatException("Invalid number format: '" + value + "'. Please enter a valid number.");
+        }
+    }
+
+    // With the summary, so a run started with the default seed can be repeated
+    private static void printSeed(long seed) {
+        OutputDevice.print("Seed:                 " + seed);
+    }
+
     private static Person createPerson(String type, int weight, int height, String[] inputParts) {
         try {
             type.toLowerCase();
@@ -164,31 +340,49 @@ public class Main {
         OutputDevice.printInfo("Loading elevator from memory...");
         app.clearScreen();
 
-        try (Reader reader = new FileReader(ELEVATOR_FILE)) {
-            Gson gson = new Gson();
-            List<Elevator> elevators = gson.fromJson(reader, new TypeToken<List<Elevator>>(){}.getType());
+        try {
+            RecordJournal journal = elevatorJournal();
 
             Scanner scanner = new Scanner(System.in);
             OutputDevice.print("Enter elevator ID to load:");
             String elevatorId = scanner.nextLine();
 
-            // Find the elevator by ID using getId()
-            Optional<Elevator> elevatorOpt = elevators.stream()
-                    .filter(e -> e.getId().equals(elevatorId))
-                    .findFirst();
+            // Find the elevator by ID in the journal index
+            String record = journal.get(elevatorId);
 
-            if (elevatorOpt.isPresent()) {
-                Elevator loadedElevator = elevatorOpt.get();
-                app.addElevator(loadedElevator.getMaxWeight(), loadedElevator.getWidth(), loadedElevator.getDepth(), loadedElevator.getFloors(), loadedElevator.getCurrentFloor());
+            if (record != null) {
+                Elevator loadedElevator = GSON.fromJson(record, Elevator.class);
+                app.addElevator(loadedElevator);
                 runSession(app); // Call session with loaded elevator
             } else {
                 OutputDevice.printError("Elevator with ID " + elevatorId + " not found.");
             }
-        } catch (IOException e) {
+        } catch (IOException | IllegalArgumentException | JsonParseException e) {
             OutputDevice.printError("Failed to load elevator: " + e.getMessage());
         }
     }
 
+    private static void loadElevatorGroup(Application app) {
+        OutputDevice.printInfo("Loading elevator group from memory...");
+
+        try {
+            List<Elevator> elevators = new ArrayList<>();
+            for (String record : elevatorJournal().records()) {
+                elevators.add(GSON.fromJson(record, Elevator.class));
+            }
+
+            if (elevators.isEmpty()) {
+                OutputDevice.printError("No elevators found in memory.");
+                return;
+            }
+
+            app.addElevatorGroup(elevators, Simulation.DEFAULT_TRAVEL_TIME_PER_FLOOR, Simulation.DEFAULT_DOOR_DWELL_TIME);
+            runSession(app);
+        } catch (IOException | IllegalArgumentException | JsonParseException e) {
+            OutputDevice.printError("Failed to load elevators: " + e.getMessage());
+        }
+    }
+
     private static void newElevator(Application app) {
         OutputDevice.printInfo("Creating a new elevator...");
         Scanner scanner = new Scanner(System.in);
@@ -211,45 +405,15 @@ public class Main {
 
         app.addElevator(maxWeight, width, depth, floors, currentFloor);
 
-        // Save the new elevator to memory
-        saveElevatorToMemory(maxWeight, width, depth, currentFloor, floors);
+        // Save the new elevator to memory under the ID it was created with
+        saveElevatorToMemory(app.getElevator());
         runSession(app); // Call session with the new elevator
     }
 
-    private static void saveElevatorToMemory(int maxWeight, int width, int depth, int currentFloor, int[] floors) {
-        Gson gson = new Gson();
-        List<Elevator> elevators = new ArrayList<>();
-
-        // Check if elevators.json exists and read existing elevators
-        File file = new File(ELEVATOR_FILE);
-        if (file.exists()) {
-            // Read existing elevators if file exists
-            try (Reader reader = new FileReader(file)) {
-                elevators = gson.fromJson(reader, new TypeToken<List<Elevator>>(){}.getType());
-                if (elevators == null) elevators = new ArrayList<>();
-            } catch (IOException e) {
-                OutputDevice.printError("Failed to read elevator file: " + e.getMessage());
-            }
-        } else {
-            // Create the file and initialize it with an empty JSON array if it doesn't exist
-            try {
-                file.createNewFile();
-                try (Writer writer = new FileWriter(file)) {
-                    writer.write("[]"); // Initialize with empty JSON array
-                }
-            } catch (IOException e) {
-                OutputDevice.printError("Failed to create elevator file: " + e.getMessage());
-                return;
-            }
-        }
-
-        // Add the new elevator to the list
-        Elevator newElevator = new Elevator(IDGenerator.generateElevatorID(), maxWeight, width, depth, floors, currentFloor);
-        elevators.add(newElevator);
-
-        // Write updated elevator list back to file
-        try (Writer writer = new FileWriter(ELEVATOR_FILE)) {
-            gson.toJson(elevators, writer);
+    private static void saveElevatorToMemory(Elevator newElevator) {
+        // Append the new elevator to the journal instead of rewriting the whole file
+        try {
+            elevatorJournal().append(newElevator.getId(), GSON.toJson(newElevator));
             OutputDevice.printInfo("New elevator saved to memory.");
         } catch (IOException e) {
             OutputDevice.printError("Failed to save elevator: " + e.getMessage());
@@ -259,7 +423,7 @@ public class Main {
     private static void runSession(Application app) {
         app.clearScreen();
         OutputDevice.print("=== Managing passengers ===\n");
-        OutputDevice.print("Available commands:\nloadpeople - load existing people from memory\nperson - create a new person\nstart - start the elevator\n");
+        OutputDevice.print("Available commands:\nloadpeople - load existing people from memory\nperson - create a new person\nstart - start the elevator\nsimulate [travel_ms_per_floor] [door_dwell_ms] - run without screen frames and print a summary\ncheckpoint <file> - save the elevator with everyone queued or inside\nrestore <file> - continue from a saved checkpoint\n");
 
         while (true) {
             OutputDevice.print("Enter a command (or type 'exit' to quit):");
@@ -286,19 +450,7 @@ public class Main {
                             Person person = createPerson(type, weight, height, inputParts);
                             if (person != null) {
                                 app.addPersonToQueue(person, startFloor, destinationFloor);
-
-                                // Prepare optional fields based on person type
-                                Map<String, Object> optionalFields = new HashMap<>();
-                                if (person instanceof Doctor) {
-                                    Doctor doctor = (Doctor) person;
-                                    optionalFields.put("emergencyLevel", doctor.getEmergencyLevel());
-                                } else if (person instanceof Patient) {
-                                    Patient patient = (Patient) person;
-                                    optionalFields.put("walkingAid", patient.getWalkingAid().toString());
-                                }
-
-                                // Pass individual fields and optional fields map to savePersonToMemory
-                                savePersonToMemory(type, person.getID(), weight, height, startFloor, destinationFloor, optionalFields);
+                                savePersonToMemory(person, startFloor, destinationFloor);
                             }
                         } catch (NumberFormatException e) {
                             OutputDevice.printError("Invalid number format. Ensure weight, height, start floor, and destination floor are integers.");
@@ -316,8 +468,34 @@ public class Main {
                     app.startSession();
                     break;
 
+                case "simulate":
+                    try {
+                        runSimulation(app, inputParts);
+                    } catch (InvalidNumberFormatException e) {
+                        OutputDevice.printError(e.getMessage());
+                    }
+                    break;
+
+                case "checkpoint":
+                case "restore":
+                    if (inputParts.length < 2) {
+                        OutputDevice.printUsage(command + " file");
+                        break;
+                    }
+                    try {
+                        if (command.equals("checkpoint")) {
+                            app.saveCheckpoint(new File(inputParts[1]));
+                            OutputDevice.printInfo("Checkpoint saved to " + inputParts[1]);
+                        } else {
+                            app.restoreCheckpoint(new File(inputParts[1]));
+                        }
+                    } catch (IOException | IllegalStateException e) {
+                        OutputDevice.printError("Failed to " + command + ": " + e.getMessage());
+                    }
+                    break;
+
                 default:
-                    OutputDevice.printError("Unknown command: '" + command + "'. Try 'person', 'loadpeople', and 'start'.");
+                    OutputDevice.printError("Unknown command: '" + command + "'. Try 'person', 'loadpeople', 'start', 'simulate', 'checkpoint' and 'restore'.");
                     break;
             }
         }
@@ -325,21 +503,11 @@ public class Main {
 
     private static void loadPeopleFromMemory(Application app) {
         OutputDevice.printInfo(" Loading people from memory...");
-        File file = new File(PEOPLE_FILE);
-
-        if (!file.exists()) {
-            OutputDevice.printInfo("No people data found. No people were saved previously.");
-            return;
-        }
-
-        try (Reader reader = new FileReader(PEOPLE_FILE)) {
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(Person.class, new PersonDeserializer())
-                    .create();
 
-            List<Map<String, Object>> people = gson.fromJson(reader, new TypeToken<List<Map<String, Object>>>(){}.getType());
+        try {
+            PeopleStore people = peopleStore();
 
-            if (people == null || people.isEmpty()) {
+            if (people.size() == 0) {
                 OutputDevice.printInfo("No people data found. No people were saved previously.");
                 return;
             }
@@ -353,30 +521,17 @@ public class Main {
                     break;
                 }
 
-                boolean personFound = false;
-                for (Map<String, Object> personData : people) {
-                    if (personData.containsKey("ID") && personId.equals(personData.get("ID"))) {
-                        personFound = true;
-                        try {
-                            String type = (String) personData.get("type");
-                            int weight = ((Double) personData.get("weight")).intValue();
-                            int height = ((Double) personData.get("height")).intValue();
-                            int startFloor = ((Double) personData.get("startFloor")).intValue();
-                            int destinationFloor = ((Double) personData.get("destinationFloor")).intValue();
-
-                            Person person = createPerson(type, weight, height, new String[]{});
-                            if (person != null) {
-                                app.addPersonToQueue(person, startFloor, destinationFloor);
-//                                OutputDevice.printInfo( person.getClass().getSimpleName() + " loaded and added to queue on floor " + startFloor);
-                            }
-                        } catch (Exception e) {
-                            OutputDevice.printError("Invalid data format for person ID " + personId + ". Skipping entry.");
-                        }
-                    }
+                PeopleStore.Entry entry = people.find(personId);
+                if (entry == null) {
+                    OutputDevice.printInfo("Person with ID " + personId + " not found in memory.");
+                    continue;
                 }
 
-                if (!personFound) {
-                    OutputDevice.printInfo("Person with ID " + personId + " not found in memory.");
+                try {
+                    Person person = entry.decode();
+                    app.addPersonToQueue(person, entry.getStartFloor(), person.getDestinationFloor());
+                } catch (JsonParseException e) {
+                    OutputDevice.printError("Invalid data format for person ID " + personId + ". Skipping entry.");
                 }
             }
         } catch (IOException e) {
@@ -384,57 +539,93 @@ public class Main {
         }
     }
 
-    private static void savePersonToMemory(String type, String id, int weight, int height, int startFloor, int destinationFloor, Map<String, Object> optionalFields) {
-        if (id == null || weight <= 0 || height <= 0 || destinationFloor < 0) {
+    private static PeopleStore peopleStore() throws IOException {
+        // reuse the index until a save or compaction changes the files
+        if (peopleStore == null || peopleStore.isStale()) {
+            peopleStore = new PeopleStore(PEOPLE_FILE);
+        }
+        return peopleStore;
+    }
+
+    private static void savePersonToMemory(Person person, int startFloor, int destinationFloor) {
+        if (person.getBodyWeight() <= 0 || person.getHeight() <= 0 || destinationFloor < 0) {
             OutputDevice.printError("Invalid person data. Person not saved to memory.");
             return;
         }
+        person.setDestinationFloor(destinationFloor);
+
+        try {
+            peopleJournal().append(person.getID(), PersonTypeAdapter.toRecord(person, startFloor));
+            OutputDevice.printInfo("New person saved to memory.");
+        } catch (IOException e) {
+            OutputDevice.printError("Failed to save person: " + e.getMessage());
+        }
+    }
 
-        File file = new File(PEOPLE_FILE);
-        Gson gson = new Gson();
-        List<Map<String, Object>> people = new ArrayList<>();
+    private static RecordJournal elevatorJournal() throws IOException {
+        if (elevatorJournal == null) {
+            elevatorJournal = openJournal(ELEVATOR_FILE);
+        }
+        return elevatorJournal;
+    }
+
+    private static RecordJournal peopleJournal() throws IOException {
+        if (peopleJournal == null) {
+            peopleJournal = openJournal(PEOPLE_FILE);
+        }
+        return peopleJournal;
+    }
 
-        // Check if people.json exists and read existing people
-        if (file.exists()) {
-            try (Reader reader = new FileReader(file)) {
-                people = gson.fromJson(reader, new TypeToken<List<Map<String, Object>>>(){}.getType());
-                if (people == null) people = new ArrayList<>();
+    private static RecordJournal openJournal(String file) throws IOException {
+        RecordJournal journal = new RecordJournal(file, journalSyncPolicy(), RecordJournal.DEFAULT_COMPACTION_THRESHOLD);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                journal.close();
             } catch (IOException e) {
-                OutputDevice.printError("Failed to read people file: " + e.getMessage());
+                OutputDevice.printError("Failed to close " + file + " journal: " + e.getMessage());
             }
-        } else {
+        }));
+        return journal;
+    }
+
+    private static void configureOutput(boolean batch) {
+        // -Delevator.output.level=INFO|WARNING|ERROR
+        String level = System.getProperty("elevator.output.level");
+        if (level != null) {
             try {
-                file.createNewFile();
-                try (Writer writer = new FileWriter(file)) {
-                    writer.write("[]");
-                }
-            } catch (IOException e) {
-                OutputDevice.printError("Failed to create people file: " + e.getMessage());
-                return;
+                OutputDevice.setThreshold(OutputDevice.Level.valueOf(level.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                OutputDevice.printWarning("Unknown output level '" + level + "', using INFO.");
             }
         }
 
-        // Create a new person data map with core fields
-        Map<String, Object> personData = new HashMap<>();
-        personData.put("type", type.toLowerCase());
-        personData.put("ID", id);
-        personData.put("weight", weight);
-        personData.put("height", height);
-        personData.put("startFloor", startFloor);
-        personData.put("destinationFloor", destinationFloor);
-
-        // Add optional fields if they are provided
-        if (optionalFields != null) {
-            personData.putAll(optionalFields);
+        // -Delevator.output=console|async|silent|file:<path>, batch runs write through the async sink by default
+        String output = System.getProperty("elevator.output", batch ? "async" : "console");
+        try {
+            if (output.equalsIgnoreCase("silent")) {
+                OutputDevice.setSilent();
+            } else if (output.equalsIgnoreCase("async")) {
+                OutputDevice.setSink(AsyncOutputSink.toConsole());
+            } else if (output.regionMatches(true, 0, "file:", 0, 5)) {
+                OutputDevice.setSink(AsyncOutputSink.toFile(new File(output.substring(5)).toPath()));
+            } else if (!output.equalsIgnoreCase("console")) {
+                OutputDevice.printWarning("Unknown output '" + output + "', using console.");
+            }
+        } catch (IOException e) {
+            OutputDevice.printError("Could not open " + output.substring(5) + ", using console: " + e.getMessage());
         }
+        //whatever is still queued when the JVM exits gets written out
+        Runtime.getRuntime().addShutdownHook(new Thread(OutputDevice::flush));
+    }
 
-        people.add(personData);
-
-        try (Writer writer = new FileWriter(PEOPLE_FILE)) {
-            gson.toJson(people, writer);
-            OutputDevice.printInfo("New person saved to memory.");
-        } catch (IOException e) {
-            OutputDevice.printError("Failed to save person: " + e.getMessage());
+    private static RecordJournal.SyncPolicy journalSyncPolicy() {
+        // -Delevator.journal.sync=NONE|EVERY_RECORD|BATCHED
+        String policy = System.getProperty("elevator.journal.sync", RecordJournal.SyncPolicy.BATCHED.name());
+        try {
+            return RecordJournal.SyncPolicy.valueOf(policy.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            OutputDevice.printWarning("Unknown journal sync policy '" + policy + "', using BATCHED.");
+            return RecordJournal.SyncPolicy.BATCHED;
         }
     }
 
@@ -0,0 +1,83 @@
+package com.example.elevator;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Slot bookkeeping of a bounded ring with many producers and one consumer. The payload stays in the
+// caller's own arrays, indexed by slot, so a ring of primitives never boxes anything.
+// Producer: claim, fill the slot, publish. Consumer: peek, read the slot, release.
+public class MultiProducerRing {
+    //each slot's sequence tells whose turn it is:
+    //seq == position -> free for the producer claiming position, seq == position + 1 -> filled for the consumer
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // only the consumer touches this
+
+    public MultiProducerRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // Claim the next position from any thread, never blocks, -1 if the ring is full
+    public long claim() {
+        while (true) {
+            long position = tail.get();
+            long difference = sequences.get(slotOf(position)) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (difference < 0) {
+                return -1; // the consumer is a whole lap behind
+            }
+            //otherwise another producer claimed this position first, try the next one
+        }
+    }
+
+    public int slotOf(long position) {
+        return (int) position & mask;
+    }
+
+    // Hand a claimed and filled slot to the consumer. A full store, so a producer that checks
+    // whether the consumer sleeps right after cannot miss it going to sleep.
+    public void publish(long position) {
+        sequences.set(slotOf(position), position + 1);
+    }
+
+    // Slot the consumer reads next, or -1 if it is empty or the next producer has not filled its slot yet
+    public int peek() {
+        int slot = slotOf(head);
+        return sequences.get(slot) == head + 1 ? slot : -1;
+    }
+
+    // Free the slot returned by peek for the next lap, consumer only
+    public void release() {
+        sequences.lazySet(slotOf(head), head + mask + 1);
+        head++;
+    }
+
+    public boolean isEmpty() {
+        return peek() < 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // Positions claimed by producers so far, published or not
+    public long getClaimed() {
+        return tail.get();
+    }
+
+    // Positions released by the consumer so far, consumer only
+    public long getReleased() {
+        return head;
+    }
+}
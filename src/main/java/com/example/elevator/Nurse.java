@@ -9,6 +9,16 @@ public class Nurse extends Person{
         this.emergencyLevel = 1;//default no emergency
     }
 
+    public Nurse(IDAllocator ids, int weight, int height) {
+        super(ids.allocate(IDAllocator.Kind.NURSE), weight, height);
+        this.emergencyLevel = 1;//default no emergency
+    }
+
+    Nurse(int ID, int weight, int height) {
+        super(ID, weight, height);
+        this.emergencyLevel = 1;//default no emergency
+    }
+
     @Override
     public int getPriorityLevel() {
         // 3, 6, 8
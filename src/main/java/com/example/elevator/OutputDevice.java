@@ -1,22 +1,85 @@
 package com.example.elevator;
 
 public class OutputDevice {
+
+    //ordered by importance, usage lines and plain output are what the user asked for:
+    //every threshold lets them through, only silent mode drops them
+    public enum Level {
+        INFO("INFO"), WARNING("WARNING"), ERROR("ERROR"), USAGE("USAGE"), OUTPUT(null);
+
+        private final String tag;
+
+        Level(String tag) {
+            this.tag = tag;
+        }
+
+        // Name shown in front of the message, null for plain output
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    private static final int SILENT = Integer.MAX_VALUE;
+
+    //a message below the threshold costs one comparison, the sink never sees it
+    private static volatile int threshold = Level.INFO.ordinal();
+    private static volatile OutputSink sink = new ConsoleSink(System.out);
+
     public static void print(String message) {
-        System.out.println(message);
+        write(Level.OUTPUT, message);
     }
 
     public static void printInfo(String message) {
-        print(TextColor.infoLabel() + " " + message);
+        write(Level.INFO, message);
     }
 
     public static void printError(String message) {
-        print(TextColor.errorLabel() + " " + message);
+        write(Level.ERROR, message);
     }
 
     public static void printWarning(String message) {
-        print(TextColor.warningLabel() + " " + message);
+        write(Level.WARNING, message);
     }
     public static void printUsage(String message) {
-        print(TextColor.usageLabel() + " " + message);
+        write(Level.USAGE, message);
+    }
+
+    // Guard for messages that are expensive to build, e.g. on a simulation hot path
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold;
+    }
+
+    // Drop every message below the level, usage and plain output always pass
+    public static void setThreshold(Level level) {
+        threshold = Math.min(level.ordinal(), Level.ERROR.ordinal());
+    }
+
+    // Drop everything, including plain output
+    public static void setSilent() {
+        threshold = SILENT;
+    }
+
+    // Replace the sink, the previous one is flushed and closed
+    public static void setSink(OutputSink newSink) {
+        OutputSink previous = sink;
+        sink = newSink;
+        if (previous != newSink) {
+            previous.close();
+        }
+    }
+
+    public static OutputSink getSink() {
+        return sink;
+    }
+
+    // Wait until everything printed so far has been written, e.g. before reading input
+    public static void flush() {
+        sink.flush();
+    }
+
+    private static void write(Level level, String message) {
+        if (level.ordinal() >= threshold) {
+            sink.write(level, message);
+        }
     }
 }
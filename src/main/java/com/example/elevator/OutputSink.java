@@ -0,0 +1,16 @@
+package com.example.elevator;
+
+import java.io.Closeable;
+
+// Where OutputDevice sends the messages that pass its threshold
+public interface OutputSink extends Closeable {
+
+    // Called from any thread
+    void write(OutputDevice.Level level, String message);
+
+    // Return once everything written before the call is out
+    void flush();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,155 @@
+package com.example.elevator;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PassengerMetrics {
+    // effective priorities are 1-9, plus 10 while boosted
+    private static final int PRIORITIES = 32;
+
+    //queue -> board is the wait, board -> alight is the ride, both in milliseconds
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LatencyHistogram rideTimes = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> waitByType = new LinkedHashMap<>();
+    private final Map<String, LatencyHistogram> rideByType = new LinkedHashMap<>();
+    private final LatencyHistogram[] waitByPriority = new LatencyHistogram[PRIORITIES];
+    private final LatencyHistogram[] rideByPriority = new LatencyHistogram[PRIORITIES];
+
+    //queue depth gauges per floor, current value and the peak seen so far
+    private int[] queueDepth = new int[0];
+    private int[] peakQueueDepth = new int[0];
+
+    public void recordWait(Person person, long millis) {
+        waitTimes.record(millis);
+        waitByType.computeIfAbsent(person.getType(), type -> new LatencyHistogram()).record(millis);
+        byPriority(waitByPriority, person.getEffectivePriority()).record(millis);
+    }
+
+    public void recordRide(Person person, long millis) {
+        rideTimes.record(millis);
+        rideByType.computeIfAbsent(person.getType(), type -> new LatencyHistogram()).record(millis);
+        byPriority(rideByPriority, person.getEffectivePriority()).record(millis);
+    }
+
+    public void updateQueueDepth(int floor, int depth) {
+        if (floor < 0) {
+            return;
+        }
+        if (floor >= queueDepth.length) {
+            int length = Math.max(floor + 1, queueDepth.length * 2);
+            queueDepth = Arrays.copyOf(queueDepth, length);
+            peakQueueDepth = Arrays.copyOf(peakQueueDepth, length);
+        }
+        queueDepth[floor] = depth;
+        if (depth > peakQueueDepth[floor]) {
+            peakQueueDepth[floor] = depth;
+        }
+    }
+
+    // Fold another agenda's metrics into these, e.g. to report a whole elevator group
+    public void add(PassengerMetrics other) {
+        waitTimes.add(other.waitTimes);
+        rideTimes.add(other.rideTimes);
+        addAll(waitByType, other.waitByType);
+        addAll(rideByType, other.rideByType);
+        for (int priority = 0; priority < PRIORITIES; priority++) {
+            if (other.waitByPriority[priority] != null) {
+                byPriority(waitByPriority, priority).add(other.waitByPriority[priority]);
+            }
+            if (other.rideByPriority[priority] != null) {
+                byPriority(rideByPriority, priority).add(other.rideByPriority[priority]);
+            }
+        }
+        //cars queue separately, so the building-wide gauge adds current depths and keeps the highest single-car peak
+        for (int floor = 0; floor < other.queueDepth.length; floor++) {
+            int depth = other.queueDepth[floor] + (floor < queueDepth.length ? queueDepth[floor] : 0);
+            int peak = Math.max(other.peakQueueDepth[floor], floor < peakQueueDepth.length ? peakQueueDepth[floor] : 0);
+            updateQueueDepth(floor, peak);
+            queueDepth[floor] = depth;
+        }
+    }
+
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    public LatencyHistogram getRideTimes() {
+        return rideTimes;
+    }
+
+    // null if no one of this type was recorded
+    public LatencyHistogram getWaitTimes(String type) {
+        return waitByType.get(type);
+    }
+
+    public LatencyHistogram getRideTimes(String type) {
+        return rideByType.get(type);
+    }
+
+    public LatencyHistogram getWaitTimesByPriority(int priority) {
+        return priority >= 0 && priority < PRIORITIES ? waitByPriority[priority] : null;
+    }
+
+    public LatencyHistogram getRideTimesByPriority(int priority) {
+        return priority >= 0 && priority < PRIORITIES ? rideByPriority[priority] : null;
+    }
+
+    public int getQueueDepth(int floor) {
+        return floor >= 0 && floor < queueDepth.length ? queueDepth[floor] : 0;
+    }
+
+    public int getPeakQueueDepth(int floor) {
+        return floor >= 0 && floor < peakQueueDepth.length ? peakQueueDepth[floor] : 0;
+    }
+
+    public void print() {
+        OutputDevice.print("=== Passenger Metrics (ms) ===");
+        OutputDevice.print(String.format("%-16s %8s %10s %10s %10s %10s", "", "count", "p50", "p95", "p99", "max"));
+        printRow("Wait", waitTimes);
+        printRow("Ride", rideTimes);
+
+        OutputDevice.print("Wait by type:");
+        for (Map.Entry<String, LatencyHistogram> entry : waitByType.entrySet()) {
+            printRow("  " + entry.getKey(), entry.getValue());
+        }
+        OutputDevice.print("Wait by priority:");
+        for (int priority = PRIORITIES - 1; priority >= 0; priority--) {
+            if (waitByPriority[priority] != null) {
+                printRow("  " + priority, waitByPriority[priority]);
+            }
+        }
+        OutputDevice.print("Ride by type:");
+        for (Map.Entry<String, LatencyHistogram> entry : rideByType.entrySet()) {
+            printRow("  " + entry.getKey(), entry.getValue());
+        }
+
+        StringBuilder peaks = new StringBuilder("Peak queue depth by floor:");
+        for (int floor = 0; floor < peakQueueDepth.length; floor++) {
+            if (peakQueueDepth[floor] > 0) {
+                peaks.append(' ').append(floor).append('=').append(peakQueueDepth[floor]);
+            }
+        }
+        OutputDevice.print(peaks.toString());
+    }
+
+    private static void printRow(String label, LatencyHistogram histogram) {
+        OutputDevice.print(String.format("%-16s %8d %10d %10d %10d %10d", label, histogram.getCount(),
+                histogram.valueAtPercentile(50), histogram.valueAtPercentile(95),
+                histogram.valueAtPercentile(99), histogram.getMax()));
+    }
+
+    private static LatencyHistogram byPriority(LatencyHistogram[] histograms, int priority) {
+        int index = Math.max(0, Math.min(PRIORITIES - 1, priority));
+        if (histograms[index] == null) {
+            histograms[index] = new LatencyHistogram();
+        }
+        return histograms[index];
+    }
+
+    private static void addAll(Map<String, LatencyHistogram> target, Map<String, LatencyHistogram> source) {
+        for (Map.Entry<String, LatencyHistogram> entry : source.entrySet()) {
+            target.computeIfAbsent(entry.getKey(), type -> new LatencyHistogram()).add(entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.elevator;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+public class PassengerQueue extends AbstractQueue<Person> {
+    //insertion order like a LinkedList, but anyone can leave in O(1)
+    //people sit in order[head, tail), a leaver leaves a null behind that is compacted away when order fills up
+    private Person[] order = new Person[16];
+    private int head;
+    private int tail;
+    private int size;
+    private int modCount;
+
+    //identity hash index, person -> position in order, linear probing
+    private Person[] keys = new Person[32];
+    private int[] positions = new int[32];
+
+    @Override
+    public boolean offer(Person person) {
+        if (person == null) {
+            throw new NullPointerException();
+        }
+        if (find(person) >= 0) {
+            return false;
+        }
+        if (tail == order.length) {
+            makeRoom();
+        }
+        order[tail] = person;
+        insert(person, tail++);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Person peek() {
+        return size == 0 ? null : order[head];
+    }
+
+    @Override
+    public Person poll() {
+        if (size == 0) {
+            return null;
+        }
+        Person person = order[head];
+        delete(find(person));
+        removeAt(head);
+        return person;
+    }
+
+    @Override
+    public boolean remove(Object person) {
+        int slot = find(person);
+        if (slot < 0) {
+            return false;
+        }
+        int position = positions[slot];
+        delete(slot);
+        removeAt(position);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object person) {
+        return find(person) >= 0;
+    }
+
+    // First person with the highest effective priority, in one pass over the car
+    public Person highestPriority() {
+        Person top = null;
+        for (int i = head; i < tail; i++) {
+            Person person = order[i];
+            if (person != null && (top == null || person.getEffectivePriority() > top.getEffectivePriority())) {
+                top = person;
+            }
+        }
+        return top;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(order, head, tail, null);
+        Arrays.fill(keys, null);
+        head = 0;
+        tail = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Person> action) {
+        for (int i = head; i < tail; i++) {
+            if (order[i] != null) {
+                action.accept(order[i]);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<Person> iterator() {
+        return new Iterator<Person>() {
+            private int next = head;
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                while (next < tail && order[next] == null) {
+                    next++;
+                }
+                return next < tail;
+            }
+
+            @Override
+            public Person next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                return order[next++];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                //a removal never moves anyone, so the cursor stays valid
+                delete(find(order[last]));
+                removeAt(last);
+                expectedModCount = modCount;
+                last = -1;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void removeAt(int position) {
+        order[position] = null;
+        size--;
+        modCount++;
+        if (size == 0) {
+            head = 0;
+            tail = 0;
+        } else if (position == head) {
+            while (order[head] == null) {
+                head++;
+            }
+        }
+    }
+
+    // Compact the gaps left by leavers, or grow if the car really holds that many people
+    private void makeRoom() {
+        if (size * 2 > order.length) {
+            order = Arrays.copyOf(order, order.length * 2);
+            if (keys.length < order.length * 2) {
+                rehash(order.length * 2);
+            }
+        }
+        int kept = 0;
+        for (int i = head; i < tail; i++) {
+            Person person = order[i];
+            if (person != null) {
+                order[i] = null;
+                order[kept] = person;
+                positions[find(person)] = kept++;
+            }
+        }
+        head = 0;
+        tail = kept;
+    }
+
+    private int find(Object person) {
+        if (person == null) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        for (int slot = hash(person) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == person) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(Person person, int position) {
+        int mask = keys.length - 1;
+        int slot = hash(person) & mask;
+        while (keys[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = person;
+        positions[slot] = position;
+    }
+
+    // Backward-shift deletion, so lookups never need tombstones
+    private void delete(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                positions[hole] = positions[next];
+                hole = next;
+            }
+        }
+        keys[hole] = null;
+    }
+
+    private void rehash(int capacity) {
+        Person[] oldKeys = keys;
+        int[] oldPositions = positions;
+        keys = new Person[capacity];
+        positions = new int[capacity];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != null) {
+                insert(oldKeys[slot], oldPositions[slot]);
+            }
+        }
+    }
+
+    private static int hash(Object person) {
+        int h = System.identityHashCode(person);
+        return h ^ (h >>> 16);
+    }
+}
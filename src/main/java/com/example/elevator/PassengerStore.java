@@ -0,0 +1,106 @@
+package com.example.elevator;
+
+import java.util.Arrays;
+
+// A day's worth of hall calls kept in parallel primitive arrays instead of one Person per call.
+// A passenger is an int index. The Person object only exists from the moment the call is handed to the
+// simulation, so memory grows with the people in the building and not with the size of the population.
+public class PassengerStore {
+    //25 bytes per passenger, just what materialize() needs, against ~130 for a Person and the event that schedules its call
+    private int[] ids;
+    private long[] times;
+    private int[] startFloors;
+    private int[] destinationFloors;
+    private short[] bodyWeights;
+    private short[] heights;
+    private byte[] details;       // emergency level for staff, walking aid ordinal for patients
+    private int size;
+
+    public PassengerStore(int capacity) {
+        int initial = Math.max(16, capacity);
+        ids = new int[initial];
+        times = new long[initial];
+        startFloors = new int[initial];
+        destinationFloors = new int[initial];
+        bodyWeights = new short[initial];
+        heights = new short[initial];
+        details = new byte[initial];
+    }
+
+    // Store a call and return its index, calls must be added in time order.
+    // detail is the emergency level of staff or the WalkingAid ordinal of a patient, 0 for visitors.
+    public int add(long time, int id, int bodyWeight, int height, int detail, int startFloor, int destinationFloor) {
+        if (size > 0 && time < times[size - 1]) {
+            throw new IllegalArgumentException("Calls must be added in time order: " + time + " after " + times[size - 1] + ".");
+        }
+        if (bodyWeight > Short.MAX_VALUE || height > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Weight or height of " + IDAllocator.render(id) + " is out of range.");
+        }
+        if (size == ids.length) {
+            grow();
+        }
+        int index = size++;
+        ids[index] = id;
+        times[index] = time;
+        startFloors[index] = startFloor;
+        destinationFloors[index] = destinationFloor;
+        bodyWeights[index] = (short) bodyWeight;
+        heights[index] = (short) height;
+        details[index] = (byte) detail;
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getStartFloor(int index) {
+        return startFloors[index];
+    }
+
+    public int getDestinationFloor(int index) {
+        return destinationFloors[index];
+    }
+
+    // Build the Person for a stored call, a new object on every call
+    public Person materialize(int index) {
+        IDAllocator.Kind kind = IDAllocator.kindOf(ids[index]);
+        byte detail = details[index];
+        WalkingAid walkingAid = kind == IDAllocator.Kind.PATIENT ? WalkingAid.values()[detail] : null;
+        int emergencyLevel = kind == IDAllocator.Kind.PATIENT ? 0 : detail;
+        Person person = PersonTypeAdapter.create(kind, ids[index], bodyWeights[index], heights[index], emergencyLevel, walkingAid);
+        person.setDestinationFloor(destinationFloors[index]);
+        return person;
+    }
+
+    // Hand the stored calls to a simulation in order, each person is built when its call comes up
+    public ArrivalSource arrivals() {
+        return new ArrivalSource() {
+            private int next;
+
+            @Override
+            public HallCall next() {
+                if (next == size) {
+                    return null;
+                }
+                int index = next++;
+                return new HallCall(times[index], materialize(index), startFloors[index], destinationFloors[index]);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        times = Arrays.copyOf(times, capacity);
+        startFloors = Arrays.copyOf(startFloors, capacity);
+        destinationFloors = Arrays.copyOf(destinationFloors, capacity);
+        bodyWeights = Arrays.copyOf(bodyWeights, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        details = Arrays.copyOf(details, capacity);
+    }
+}
@@ -13,6 +13,16 @@ public class Patient extends Person{
         this.hasWalkingAid = false;
     }
 
+    public Patient(IDAllocator ids, int weight, int height) {
+        super(ids.allocate(IDAllocator.Kind.PATIENT), weight, height);
+        this.hasWalkingAid = false;
+    }
+
+    Patient(int ID, int weight, int height) {
+        super(ID, weight, height);
+        this.hasWalkingAid = false;
+    }
+
     @Override
     public int getPriorityLevel() {
         //prioritize over non-emergency doctors and nurses if disabled
@@ -0,0 +1,129 @@
+package com.example.elevator;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class PeopleStore {
+    //the files are mapped once and scanned for record boundaries, records are only parsed when looked up
+    private final File[] files;
+    private final MappedByteBuffer[] buffers;
+    private final long[] fileLengths;
+    private final long[] fileModified;
+
+    //where each record lives, and its start floor by slot
+    private final RecordIndex index = new RecordIndex();
+    private int[] startFloors = new int[512];
+
+    private final PersonTypeAdapter adapter = new PersonTypeAdapter();
+
+    public static class Entry {
+        private final PeopleStore store;
+        private final int slot;
+
+        private Entry(PeopleStore store, int slot) {
+            this.store = store;
+            this.slot = slot;
+        }
+
+        public String getID() {
+            return store.index.getID(slot);
+        }
+
+        public int getStartFloor() {
+            return store.startFloors[slot];
+        }
+
+        // Parse the stored record into a new person, only done on request
+        public Person decode() {
+            return store.decode(slot);
+        }
+    }
+
+    public PeopleStore(String snapshotPath) throws IOException {
+        this.files = RecordJournal.replayOrder(snapshotPath);
+        this.buffers = new MappedByteBuffer[files.length];
+        this.fileLengths = new long[files.length];
+        this.fileModified = new long[files.length];
+
+        for (int file = 0; file < files.length; file++) {
+            fileLengths[file] = files[file].length();
+            fileModified[file] = files[file].lastModified();
+            if (!files[file].exists() || fileLengths[file] == 0) {
+                continue;
+            }
+            if (fileLengths[file] > Integer.MAX_VALUE) {
+                throw new IOException(files[file].getName() + " is too large to map.");
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(files[file], "r");
+                 FileChannel channel = raf.getChannel()) {
+                buffers[file] = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileLengths[file]);
+            }
+            scan(file);
+        }
+    }
+
+    public Entry find(String id) {
+        int slot = index.lookup(id);
+        return slot < 0 ? null : new Entry(this, slot);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // True once any of the underlying files changed since the store was opened
+    public boolean isStale() {
+        for (int file = 0; file < files.length; file++) {
+            if (files[file].length() != fileLengths[file] || files[file].lastModified() != fileModified[file]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scan(int file) throws IOException {
+        //the snapshot is a JSON array, the journals one record per line, see RecordJournal
+        byte from = (byte) file;
+        RecordScanner scanner = new RecordScanner(files[file].getName(), file > 0, "startFloor", (id, position, length, startFloor) -> {
+            int slot = index.put(id, from, position, length);
+            if (slot >= startFloors.length) {
+                startFloors = Arrays.copyOf(startFloors, startFloors.length * 2);
+            }
+            startFloors[slot] = startFloor;
+        });
+        MappedByteBuffer buffer = buffers[file];
+        for (int i = 0; i < buffer.limit(); i++) {
+            scanner.feed(buffer.get(i));
+        }
+        scanner.finish();
+    }
+
+    private Person decode(int slot) {
+        ByteArrayInputStream record = slice(index.getFile(slot), (int) index.getPosition(slot), index.getLength(slot));
+        try (JsonReader reader = new JsonReader(new InputStreamReader(record, StandardCharsets.UTF_8))) {
+            return adapter.read(reader);
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            throw new JsonParseException("Invalid data for person ID " + index.getID(slot) + ": " + e.getMessage(), e);
+        }
+    }
+
+    private ByteArrayInputStream slice(int file, int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffers[file].duplicate();
+        ((Buffer) view).position(position); // Buffer keeps this call compatible with Java 8
+        view.get(bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+}
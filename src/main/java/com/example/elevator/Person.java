@@ -5,24 +5,33 @@ public abstract class Person implements Surface, Weight {
     // Extra space for breathing room
     private static final double BSA_BUFFER_FACTOR = 1.05;
 
-    private String ID;
+    private final int ID; // compact numeric form, see IDAllocator
     private int weight;
     private int height;
     private int destinationFloor;
     private int floorsPassed;
     private boolean temporaryPriorityBoost;
+    private final double bodySurface; // weight and height never change, so compute the BSA once
 
-    public Person(String ID, int weight, int height) {
+    //lifecycle timestamps in agenda clock milliseconds, -1 until reached
+    private long queuedAt = -1;
+    private long boardedAt = -1;
+    private long alightedAt = -1;
+
+    //times someone behind this person boarded while they had to wait, used by knapsack boarding
+    private int boardingSkips;
+
+    public Person(int ID, int weight, int height) {
         this.ID = ID; // Corrected to use parameter
         this.weight = weight;
         this.height = height;
         this.floorsPassed = 0;
         this.temporaryPriorityBoost = false;
+        this.bodySurface = 0.007184 * Math.pow(weight, 0.425) * Math.pow(height, 0.725) * BSA_BUFFER_FACTOR;
     }
 
     public double getSurface() {
-        double bsa = 0.007184 * Math.pow(weight, 0.425) * Math.pow(height, 0.725);
-        return bsa * BSA_BUFFER_FACTOR;
+        return bodySurface;
     }
 
     public void setDestinationFloor(int floor) {
@@ -39,7 +48,17 @@ public abstract class Person implements Surface, Weight {
         return this.weight;
     }
 
+    // Weight without a walking aid, getWeight can include one
+    public int getBodyWeight() {
+        return this.weight;
+    }
+
+    // Legacy text form (P0001, D0042, ...) for output and storage
     public String getID() {
+        return IDAllocator.render(this.ID);
+    }
+
+    public int getNumericID() {
         return this.ID;
     }
 
@@ -47,6 +66,62 @@ public abstract class Person implements Surface, Weight {
         return this.height;
     }
 
+    public long getQueuedAt() {
+        return queuedAt;
+    }
+
+    public void setQueuedAt(long time) {
+        this.queuedAt = time;
+        this.boardedAt = -1;
+        this.alightedAt = -1;
+    }
+
+    public long getBoardedAt() {
+        return boardedAt;
+    }
+
+    public void setBoardedAt(long time) {
+        this.boardedAt = time;
+    }
+
+    public long getAlightedAt() {
+        return alightedAt;
+    }
+
+    public void setAlightedAt(long time) {
+        this.alightedAt = time;
+    }
+
+    public int getBoardingSkips() {
+        return boardingSkips;
+    }
+
+    public void incrementBoardingSkips() {
+        boardingSkips++;
+    }
+
+    public void resetBoardingSkips() {
+        boardingSkips = 0;
+    }
+
+    public int getFloorsPassed() {
+        return floorsPassed;
+    }
+
+    public boolean hasPriorityBoost() {
+        return temporaryPriorityBoost;
+    }
+
+    // Put back the runtime state saved in a checkpoint
+    void restoreState(int floorsPassed, boolean priorityBoost, int boardingSkips, long queuedAt, long boardedAt, long alightedAt) {
+        this.floorsPassed = floorsPassed;
+        this.temporaryPriorityBoost = priorityBoost;
+        this.boardingSkips = boardingSkips;
+        this.queuedAt = queuedAt;
+        this.boardedAt = boardedAt;
+        this.alightedAt = alightedAt;
+    }
+
     // Increment floors passed
     public void incrementFloorsPassed() {
         this.floorsPassed++;
@@ -0,0 +1,179 @@
+package com.example.elevator;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+// Reads and writes people as JSON tokens, without building a JsonObject per person, e.g.
+// {"type": "patient", "ID": "P0001", "weight": 79, "height": 198, "startFloor": 3, "destinationFloor": 6, "walkingAid": "Wheelchair"}
+// Unknown fields are skipped. startFloor belongs to the people.json record, not to the person.
+public class PersonTypeAdapter extends TypeAdapter<Person> {
+
+    @Override
+    public void write(JsonWriter out, Person person) throws IOException {
+        write(out, person, null);
+    }
+
+    // One people.json record, the floor the person waits on included
+    public static String toRecord(Person person, int startFloor) {
+        StringWriter text = new StringWriter(128);
+        try {
+            write(new JsonWriter(text), person, startFloor);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // a StringWriter does not throw
+        }
+        return text.toString();
+    }
+
+    private static void write(JsonWriter out, Person person, Integer startFloor) throws IOException {
+        if (person == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("type").value(person.getType().toLowerCase());
+        out.name("ID").value(person.getID());
+        out.name("weight").value(person.getBodyWeight()); // the walking aid is added back on load
+        out.name("height").value(person.getHeight());
+        if (startFloor != null) {
+            out.name("startFloor").value(startFloor);
+        }
+        out.name("destinationFloor").value(person.getDestinationFloor());
+        if (person instanceof Doctor) {
+            out.name("emergencyLevel").value(((Doctor) person).getEmergencyLevel());
+        } else if (person instanceof Nurse) {
+            out.name("emergencyLevel").value(((Nurse) person).getEmergencyLevel());
+        } else if (person instanceof Patient) {
+            out.name("walkingAid").value(((Patient) person).getWalkingAid().name());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Person read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String type = null;
+        String id = null;
+        int weight = 0;
+        int height = 0;
+        int destinationFloor = 0;
+        int emergencyLevel = 0;
+        WalkingAid walkingAid = null;
+
+        //the files store numbers as 79 or 79.0, nextInt takes both
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "type":
+                    type = in.nextString();
+                    break;
+                case "ID":
+                    id = in.nextString();
+                    break;
+                case "weight":
+                    weight = in.nextInt();
+                    break;
+                case "height":
+                    height = in.nextInt();
+                    break;
+                case "destinationFloor":
+                    destinationFloor = in.nextInt();
+                    break;
+                case "emergencyLevel":
+                    emergencyLevel = in.nextInt();
+                    break;
+                case "walkingAid":
+                    walkingAid = parseWalkingAid(in.nextString());
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        if (type == null) {
+            throw new JsonParseException("Missing 'type' field in person JSON data.");
+        }
+        if (id == null || weight <= 0 || height <= 0 || destinationFloor < 0) {
+            throw new JsonParseException("Missing required person attributes (ID, weight, height, or destination floor).");
+        }
+
+        //a stored ID is kept as long as it matches the type, anything else gets a new one
+        IDAllocator.Kind kind = kindOf(type);
+        int numericID = IDAllocator.parse(id);
+        if (numericID < 0 || IDAllocator.kindOf(numericID) != kind) {
+            numericID = IDAllocator.shared().allocate(kind);
+        }
+        Person person = create(kind, numericID, weight, height, emergencyLevel, walkingAid);
+        person.setDestinationFloor(destinationFloor);
+        return person;
+    }
+
+    // Build a person of the given kind, emergencyLevel 0 and a null walking aid keep the defaults
+    static Person create(IDAllocator.Kind kind, int ID, int weight, int height, int emergencyLevel, WalkingAid walkingAid) {
+        switch (kind) {
+            case DOCTOR:
+                Doctor doctor = new Doctor(ID, weight, height);
+                if (emergencyLevel != 0) {
+                    doctor.setEmergencyLevel(emergencyLevel);
+                }
+                return doctor;
+            case NURSE:
+                Nurse nurse = new Nurse(ID, weight, height);
+                if (emergencyLevel != 0) {
+                    nurse.setEmergencyLevel(emergencyLevel);
+                }
+                return nurse;
+            case PATIENT:
+                Patient patient = new Patient(ID, weight, height);
+                if (walkingAid != null) {
+                    patient.setWalkingAid(walkingAid);
+                }
+                return patient;
+            case VISITOR:
+                return new Visitor(ID, weight, height);
+            default:
+                throw new JsonParseException("Unknown person type: " + kind.name().toLowerCase());
+        }
+    }
+
+    static IDAllocator.Kind kindOf(String type) {
+        switch (type.toLowerCase()) {
+            case "doctor":
+                return IDAllocator.Kind.DOCTOR;
+            case "nurse":
+                return IDAllocator.Kind.NURSE;
+            case "patient":
+                return IDAllocator.Kind.PATIENT;
+            case "visitor":
+                return IDAllocator.Kind.VISITOR;
+            default:
+                throw new JsonParseException("Unknown person type: " + type);
+        }
+    }
+
+    // Case-insensitive enum handling
+    public static WalkingAid parseWalkingAid(String aid) {
+        for (WalkingAid walkingAid : WalkingAid.values()) {
+            if (walkingAid.name().equalsIgnoreCase(aid)) {
+                return walkingAid;
+            }
+        }
+        throw new JsonParseException("Invalid walking aid type: " + aid);
+    }
+}
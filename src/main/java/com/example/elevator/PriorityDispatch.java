@@ -0,0 +1,48 @@
+package com.example.elevator;
+
+import java.util.Queue;
+
+// The original policy: serve the most urgent request, stopping on the way unless it is an emergency or the car is full
+public class PriorityDispatch implements DispatchStrategy {
+
+    @Override
+    public int nextDestination(Agenda agenda, Elevator elevator) {
+        Queue<Person> queueInside = agenda.getQueueInside();
+        Person topPriorityPerson = null;
+        int destination = elevator.getCurrentFloor();
+
+        if (!queueInside.isEmpty()) {
+            topPriorityPerson = queueInside.peek();
+            destination = topPriorityPerson.getDestinationFloor();
+
+            // Check if the destination floor is accessible
+            if (!elevator.canAccessFloor(destination)) {
+                if (OutputDevice.isEnabled(OutputDevice.Level.ERROR)) {
+                    OutputDevice.printError("Elevator cannot access floor " + destination + ". Ignoring this request.");
+                }
+                return elevator.getCurrentFloor(); // Stay on the current floor if the floor is not accessible
+            }
+        } else {
+            int topFloor = agenda.getHallCallIndex().topFloor();
+            if (topFloor != HallCallIndex.NONE) {
+                topPriorityPerson = agenda.getQueuesByFloor().get(topFloor).peek();
+                destination = topFloor; // Set destination to the person's current floor
+            }
+        }
+
+        if (topPriorityPerson == null) {
+            return elevator.getCurrentFloor();
+        } else {
+            if (topPriorityPerson.getEffectivePriority() >= 6 || agenda.isFull()) {
+                return destination;
+            } else {
+                return agenda.getNextIntermediateStop(elevator.getCurrentFloor(), destination);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "priority";
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.elevator;
+
+import java.util.Arrays;
+
+// Where the latest record of each ID lives: which of a store's files, at what byte position and how long.
+// Open-addressing table from ID to slot, slots are in the order IDs were first seen and are never removed.
+public class RecordIndex {
+    private int[] table = new int[1024];
+    private String[] ids = new String[512];
+    private byte[] files = new byte[512];
+    private long[] positions = new long[512];
+    private int[] lengths = new int[512];
+    private int size;
+
+    // Point the ID at a record, later records replace earlier ones. Returns the ID's slot.
+    public int put(String id, byte file, long position, int length) {
+        int slot = lookup(id);
+        if (slot < 0) {
+            slot = insert(id);
+        }
+        move(slot, file, position);
+        lengths[slot] = length;
+        return slot;
+    }
+
+    // Slot of the ID, or -1
+    public int lookup(String id) {
+        int mask = table.length - 1;
+        for (int i = id.hashCode() & mask; table[i] != 0; i = (i + 1) & mask) {
+            int slot = table[i] - 1;
+            if (ids[slot].equals(id)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // The same record in another place, e.g. after its file was renamed or rewritten
+    public void move(int slot, byte file, long position) {
+        files[slot] = file;
+        positions[slot] = position;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getID(int slot) {
+        return ids[slot];
+    }
+
+    public byte getFile(int slot) {
+        return files[slot];
+    }
+
+    public long getPosition(int slot) {
+        return positions[slot];
+    }
+
+    public int getLength(int slot) {
+        return lengths[slot];
+    }
+
+    private int insert(String id) {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            files = Arrays.copyOf(files, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        //keep the table at most half full
+        if ((size + 1) * 2 > table.length) {
+            table = new int[table.length * 2];
+            for (int slot = 0; slot < size; slot++) {
+                place(slot);
+            }
+        }
+
+        int slot = size++;
+        ids[slot] = id;
+        place(slot);
+        return slot;
+    }
+
+    private void place(int slot) {
+        int mask = table.length - 1;
+        int i = ids[slot].hashCode() & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.elevator;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class RecordJournal implements Closeable {
+
+    public enum SyncPolicy {
+        NONE,         // leave flushing to disk to the operating system
+        EVERY_RECORD, // fsync after every append
+        BATCHED       // fsync every SYNC_BATCH appends and on close
+    }
+
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+    private static final int SYNC_BATCH = 64;
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    //indexes into files, in replay order (later records win)
+    private static final byte SNAPSHOT = 0;
+    private static final byte COMPACTING = 1;
+    private static final byte JOURNAL = 2;
+
+    //the snapshot is the classic JSON array file, new records go to <snapshot>.journal.jsonl until compacted
+    private final File snapshotFile;
+    private final File journalFile;
+    private final File compactingFile;
+    private final File[] files;
+    private final SyncPolicy syncPolicy;
+    private final int compactionThreshold;
+
+    //records stay on disk, the index only says where the latest one of each ID lives, like PeopleStore
+    private final RecordIndex index = new RecordIndex();
+
+    private final ExecutorService compactor;
+    private final Object compaction = new Object(); // one compaction at a time, it reads the files outside the lock
+    private FileOutputStream journalStream;
+    private OutputStream journalOut;
+    private long journalLength; // bytes, where the next appended record starts
+    private int journalRecords;
+    private int unsyncedRecords;
+
+    public RecordJournal(String snapshotPath, SyncPolicy syncPolicy, int compactionThreshold) throws IOException {
+        this.snapshotFile = new File(snapshotPath);
+        this.journalFile = journalFileFor(snapshotFile);
+        this.compactingFile = compactingFileFor(snapshotFile);
+        this.files = replayOrder(snapshotPath);
+        this.syncPolicy = syncPolicy;
+        this.compactionThreshold = compactionThreshold;
+
+        //rebuild the ID index from the snapshot and whatever was journaled since the last compaction
+        for (byte file = SNAPSHOT; file <= JOURNAL; file++) {
+            byte from = file;
+            int records = RecordScanner.scan(files[file], file != SNAPSHOT, null, (id, position, length, number) -> index.put(id, from, position, length));
+            if (file != SNAPSHOT) {
+                journalRecords += records;
+            }
+        }
+
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-compactor-" + snapshotFile.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        openJournal();
+
+        if (journalRecords >= compactionThreshold) {
+            compactAsync();
+        }
+    }
+
+    // IDs of a store's records, in replay order, without opening it for writing
+    public static void readIDs(String snapshotPath, Consumer<String> consumer) throws IOException {
+        File[] files = replayOrder(snapshotPath);
+        for (int file = 0; file < files.length; file++) {
+            RecordScanner.scan(files[file], file != SNAPSHOT, null, (id, position, length, number) -> consumer.accept(id));
+        }
+    }
+
+    // Files holding a store's records, in the order they must be replayed (later records win)
+    public static File[] replayOrder(String snapshotPath) {
+        File snapshot = new File(snapshotPath);
+        return new File[]{snapshot, compactingFileFor(snapshot), journalFileFor(snapshot)};
+    }
+
+    // Append one record, json must be a single-line JSON object, e.g. from a type adapter
+    public synchronized void append(String id, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        journalOut.write(bytes);
+        journalOut.write('\n');
+        journalOut.flush();
+
+        unsyncedRecords++;
+        if (syncPolicy == SyncPolicy.EVERY_RECORD || (syncPolicy == SyncPolicy.BATCHED && unsyncedRecords >= SYNC_BATCH)) {
+            sync();
+        }
+
+        if (id != null) {
+            index.put(id, JOURNAL, journalLength, bytes.length);
+        }
+        journalLength += bytes.length + 1;
+        if (++journalRecords == compactionThreshold) {
+            compactAsync();
+        }
+    }
+
+    // JSON text of the latest record with this ID, or null. Read from disk on every call.
+    public synchronized String get(String id) throws IOException {
+        int slot = index.lookup(id);
+        if (slot < 0) {
+            return null;
+        }
+        try (RecordReader reader = new RecordReader()) {
+            return reader.read(index.getFile(slot), index.getPosition(slot), index.getLength(slot));
+        }
+    }
+
+    // Every record, read from disk. Meant for small stores such as the elevators.
+    public synchronized List<String> records() throws IOException {
+        List<String> records = new ArrayList<>(index.size());
+        try (RecordReader reader = new RecordReader()) {
+            for (int slot = 0; slot < index.size(); slot++) {
+                records.add(reader.read(index.getFile(slot), index.getPosition(slot), index.getLength(slot)));
+            }
+        }
+        return records;
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    // Fold the journal into the snapshot on the background thread
+    public Future<?> compactAsync() {
+        return compactor.submit(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                OutputDevice.printError("Failed to compact " + snapshotFile.getName() + ": " + e.getMessage());
+            }
+        });
+    }
+
+    public void compact() throws IOException {
+        synchronized (compaction) {
+            int count;
+            byte[] fromFiles;
+            long[] fromPositions;
+            int[] fromLengths;
+            synchronized (this) {
+                if (journalRecords == 0) {
+                    return;
+                }
+                //rotate the journal so appends can carry on while the snapshot is written
+                closeJournal();
+                long shift = 0;
+                if (compactingFile.exists()) {
+                    shift = compactingFile.length();
+                    appendFile(journalFile, compactingFile); // left over from an interrupted compaction
+                    Files.delete(journalFile.toPath());
+                } else {
+                    Files.move(journalFile.toPath(), compactingFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                }
+                for (int slot = 0; slot < index.size(); slot++) {
+                    if (index.getFile(slot) == JOURNAL) {
+                        index.move(slot, COMPACTING, index.getPosition(slot) + shift);
+                    }
+                }
+                openJournal();
+                journalRecords = 0;
+
+                //where the records live now, appends after this point only ever point slots at the new journal
+                count = index.size();
+                fromFiles = new byte[count];
+                fromPositions = new long[count];
+                fromLengths = new int[count];
+                for (int slot = 0; slot < count; slot++) {
+                    fromFiles[slot] = index.getFile(slot);
+                    fromPositions[slot] = index.getPosition(slot);
+                    fromLengths[slot] = index.getLength(slot);
+                }
+            }
+
+            //stream the live records into a new snapshot next to the old one, noting where each one lands
+            long[] newPositions = new long[count];
+            File temporary = new File(snapshotFile.getPath() + ".tmp");
+            try (FileOutputStream stream = new FileOutputStream(temporary);
+                 OutputStream out = new BufferedOutputStream(stream, CHUNK_BYTES);
+                 RecordReader reader = new RecordReader()) {
+                out.write('[');
+                long written = 1;
+                for (int slot = 0; slot < count; slot++) {
+                    if (slot > 0) {
+                        out.write(',');
+                        written++;
+                    }
+                    newPositions[slot] = written;
+                    reader.copy(fromFiles[slot], fromPositions[slot], fromLengths[slot], out);
+                    written += fromLengths[slot];
+                }
+                out.write(']');
+                out.flush();
+                stream.getChannel().force(true);
+            }
+
+            //swap it in atomically, records replaced while it was written keep pointing at the journal
+            synchronized (this) {
+                Files.move(temporary.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(compactingFile.toPath());
+                for (int slot = 0; slot < count; slot++) {
+                    if (index.getFile(slot) == fromFiles[slot] && index.getPosition(slot) == fromPositions[slot]) {
+                        index.move(slot, SNAPSHOT, newPositions[slot]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            closeJournal();
+        }
+    }
+
+    private void openJournal() throws IOException {
+        journalStream = new FileOutputStream(journalFile, true);
+        journalOut = new BufferedOutputStream(journalStream);
+        journalLength = journalFile.length();
+        unsyncedRecords = 0;
+        if (journalLength > 0 && !endsWithNewline(journalFile)) {
+            //start after a torn last line, not on it
+            journalOut.write('\n');
+            journalOut.flush();
+            journalLength++;
+        }
+    }
+
+    private void closeJournal() throws IOException {
+        if (journalOut == null) {
+            return;
+        }
+        journalOut.flush();
+        if (syncPolicy != SyncPolicy.NONE && unsyncedRecords > 0) {
+            sync();
+        }
+        journalOut.close();
+        journalOut = null;
+        journalStream = null;
+    }
+
+    private void sync() throws IOException {
+        journalStream.getChannel().force(false);
+        unsyncedRecords = 0;
+    }
+
+    // Reads records back by position, each file is opened once per batch of reads
+    private final class RecordReader implements Closeable {
+        private final RandomAccessFile[] open = new RandomAccessFile[files.length];
+        private byte[] chunk;
+
+        private String read(int file, long position, int length) throws IOException {
+            byte[] bytes = new byte[length];
+            RandomAccessFile in = seek(file, position);
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void copy(int file, long position, int length, OutputStream out) throws IOException {
+            if (chunk == null) {
+                chunk = new byte[CHUNK_BYTES];
+            }
+            RandomAccessFile in = seek(file, position);
+            while (length > 0) {
+                int read = Math.min(length, chunk.length);
+                in.readFully(chunk, 0, read);
+                out.write(chunk, 0, read);
+                length -= read;
+            }
+        }
+
+        private RandomAccessFile seek(int file, long position) throws IOException {
+            if (open[file] == null) {
+                open[file] = new RandomAccessFile(files[file], "r");
+            }
+            open[file].seek(position);
+            return open[file];
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (RandomAccessFile file : open) {
+                if (file != null) {
+                    file.close();
+                }
+            }
+        }
+    }
+
+    private static boolean endsWithNewline(File file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            in.seek(in.length() - 1);
+            return in.read() == '\n';
+        }
+    }
+
+    private static void appendFile(File source, File target) throws IOException {
+        try (InputStream in = new FileInputStream(source); OutputStream out = new FileOutputStream(target, true)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private static File journalFileFor(File snapshot) {
+        return new File(snapshot.getPath().replaceFirst("\\.json$", "") + ".journal.jsonl");
+    }
+
+    private static File compactingFileFor(File snapshot) {
+        return new File(journalFileFor(snapshot).getPath() + ".compacting");
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.elevator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Cuts a record file into top-level objects by brace depth and picks out each object's top-level ID on the way,
+// plus the integer part of one other top-level number if asked for. A snapshot is a JSON array, a journal one
+// record per line. Structural characters are ASCII and never occur inside a UTF-8 sequence, so positions are byte offsets.
+public class RecordScanner {
+    private static final byte[] ID_KEY = "ID".getBytes(StandardCharsets.UTF_8);
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    public interface Sink {
+        // number is 0 when the record does not have the requested field
+        void accept(String id, long position, int length, int number);
+    }
+
+    private final String name;
+    private final boolean lines;
+    private final byte[] numberKey; // null when only the ID is wanted
+    private final Sink sink;
+    private long position;      // of the byte being fed
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private boolean keyIsID;     // the last key at depth 1 was "ID"
+    private boolean keyIsNumber; // the last key at depth 1 was numberKey, until its digits end
+    private boolean expectValue; // a ':' at depth 1 was seen since the last ','
+    private byte[] text = new byte[32]; // the string being read at depth 1
+    private int textLength;
+    private String id;
+    private int number;
+    private boolean negative;
+    private boolean inNumber;
+    private long start;
+    private boolean arrayOpened;
+    private int records;
+
+    //the current journal line, it only counts if it holds exactly one whole object
+    private boolean blank = true;
+    private byte first;
+    private int lineObjects;
+    private String lineID;
+    private int lineNumber;
+    private long lineStart;
+    private int lineLength;
+
+    public RecordScanner(String name, boolean lines, String numberKey, Sink sink) {
+        this.name = name;
+        this.lines = lines;
+        this.numberKey = numberKey == null ? null : numberKey.getBytes(StandardCharsets.UTF_8);
+        this.sink = sink;
+    }
+
+    // Index one file and return how many records it holds
+    public static int scan(File file, boolean lines, String numberKey, Sink sink) throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return 0;
+        }
+        RecordScanner scanner = new RecordScanner(file.getName(), lines, numberKey, sink);
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] chunk = new byte[CHUNK_BYTES];
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    scanner.feed(chunk[i]);
+                }
+            }
+        }
+        return scanner.finish();
+    }
+
+    public void feed(byte b) throws IOException {
+        try {
+            step(b);
+        } finally {
+            position++;
+        }
+    }
+
+    // Call after the last byte, returns how many records were found
+    public int finish() throws IOException {
+        if (lines) {
+            endLine();
+        } else if (depth != 0 || inString) {
+            throw new IOException("Corrupt snapshot " + name + ": the last record is cut off.");
+        }
+        return records;
+    }
+
+    private void step(byte b) throws IOException {
+        if (lines) {
+            if (b == '\n') {
+                endLine();
+                return;
+            }
+            if (blank && !isWhitespace(b)) {
+                blank = false;
+                first = b;
+            }
+        } else if (!arrayOpened) {
+            if (isWhitespace(b)) {
+                return;
+            }
+            if (b != '[') {
+                throw new IOException(name + " is not a JSON array.");
+            }
+            arrayOpened = true;
+            return;
+        }
+
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (b == '\\') {
+                escaped = true;
+            } else if (b == '"') {
+                inString = false;
+                if (depth == 1) {
+                    endString();
+                }
+                return;
+            }
+            if (depth == 1) {
+                if (textLength == text.length) {
+                    text = Arrays.copyOf(text, text.length * 2);
+                }
+                text[textLength++] = b;
+            }
+            return;
+        }
+        switch (b) {
+            case '"':
+                inString = true;
+                textLength = 0;
+                break;
+            case ':':
+                if (depth == 1) {
+                    expectValue = true;
+                }
+                break;
+            case ',':
+                if (depth == 1) {
+                    expectValue = false;
+                    keyIsID = false;
+                    keyIsNumber = false;
+                }
+                break;
+            case '{':
+                if (depth == 0) {
+                    start = position;
+                    id = null;
+                    number = 0;
+                    keyIsID = false;
+                    keyIsNumber = false;
+                    expectValue = false;
+                }
+                depth++;
+                break;
+            case '[':
+                if (depth > 0) {
+                    depth++;
+                }
+                break;
+            case '}':
+            case ']':
+                if (depth > 0 && --depth == 0) {
+                    int length = (int) (position + 1 - start);
+                    if (lines) {
+                        lineObjects++;
+                        lineID = id;
+                        lineNumber = number;
+                        lineStart = start;
+                        lineLength = length;
+                    } else {
+                        record(id, start, length, number);
+                    }
+                }
+                break;
+            default:
+                if (keyIsNumber && expectValue && depth == 1) {
+                    readNumber(b);
+                }
+                break;
+        }
+    }
+
+    //integer part only, the files store floors as 3 or 3.0
+    private void readNumber(byte b) {
+        if (b >= '0' && b <= '9') {
+            number = number * 10 + (negative ? -(b - '0') : b - '0');
+            inNumber = true;
+        } else if (b == '-' && !inNumber) {
+            negative = true;
+        } else if (inNumber) {
+            keyIsNumber = false;
+        }
+    }
+
+    private void endString() {
+        if (!expectValue) {
+            keyIsID = matches(ID_KEY);
+            keyIsNumber = numberKey != null && matches(numberKey);
+            negative = false;
+            inNumber = false;
+        } else if (keyIsID) {
+            id = new String(text, 0, textLength, StandardCharsets.UTF_8);
+        }
+    }
+
+    private boolean matches(byte[] key) {
+        if (textLength != key.length) {
+            return false;
+        }
+        for (int i = 0; i < textLength; i++) {
+            if (text[i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void endLine() {
+        if (!blank) {
+            if (lineObjects == 1 && depth == 0 && !inString && first == '{') {
+                record(lineID, lineStart, lineLength, lineNumber);
+            } else {
+                //a torn append from a crash, RecordJournal carries on with the next line
+                OutputDevice.printWarning("Skipping unreadable record in " + name + ".");
+            }
+        }
+        depth = 0;
+        inString = false;
+        escaped = false;
+        blank = true;
+        lineObjects = 0;
+    }
+
+    private void record(String id, long position, int length, int number) {
+        records++;
+        if (id != null) {
+            sink.accept(id, position, length, number);
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.elevator;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+
+// Plans the order of every pending pickup and drop-off instead of choosing one stop at a time.
+// A plan costs the priority-weighted time until each stop is reached plus the time to finish the whole route,
+// and is searched with branch-and-bound for a fixed number of nodes, so the same queues always give the same plan.
+public class RoutePlannerDispatch implements DispatchStrategy {
+    public static final long DEFAULT_BUDGET_NANOS = 250_000;
+    private static final long NANOS_PER_NODE = 100; // one node with ~30 pending stops, only used to turn a time budget into nodes
+
+    private final long maxNodes;
+
+    //timing of the group the car runs in, the simulation defaults until setTiming is called
+    private ElevatorGroup group;
+    private long travelTimePerFloor = Simulation.DEFAULT_TRAVEL_TIME_PER_FLOOR;
+    private double stopCost = Simulation.DEFAULT_DOOR_DWELL_TIME;
+
+    //pending stops of the current decision, sorted by floor
+    private int[] stopFloors = new int[16];
+    private double[] stopWeights = new double[16];
+    private int stopCount;
+
+    //plan kept between decisions, reused while at most one new stop shows up
+    private int[] plan = new int[16];
+    private int planLength;
+    private final BitSet planned = new BitSet();
+    private final BitSet pending = new BitSet();
+    private final BitSet added = new BitSet();
+
+    //branch-and-bound scratch
+    private int[] path = new int[16];
+    private boolean[] used = new boolean[16];
+    private int[] best = new int[16];
+    private double bestCost;
+    private long nodes;
+    private boolean outOfNodes;
+
+    public RoutePlannerDispatch() {
+        this(DEFAULT_BUDGET_NANOS);
+    }
+
+    // The budget is converted to nodes once, the search itself never reads the clock
+    public RoutePlannerDispatch(long budgetNanos) {
+        this.maxNodes = Math.max(1, budgetNanos / NANOS_PER_NODE);
+    }
+
+    @Override
+    public void setTiming(ElevatorGroup group) {
+        this.group = group;
+        this.travelTimePerFloor = group.getTravelTimePerFloor();
+        this.stopCost = group.getDoorDwellTime();
+    }
+
+    @Override
+    public int nextDestination(Agenda agenda, Elevator elevator) {
+        int currentFloor = elevator.getCurrentFloor();
+        collectStops(agenda, currentFloor);
+        if (stopCount == 0) {
+            planLength = 0;
+            planned.clear();
+            return currentFloor; // at most a pickup here is left
+        }
+
+        //cheap path: keep the plan if the stops only went away, or a single one was added
+        added.clear();
+        added.or(pending);
+        added.andNot(planned);
+        if (planLength > 0 && added.cardinality() <= 1) {
+            int kept = 0;
+            for (int i = 0; i < planLength; i++) {
+                if (pending.get(plan[i])) {
+                    plan[kept++] = plan[i];
+                }
+            }
+            planLength = kept;
+            if (!added.isEmpty()) {
+                insertCheapest(added.nextSetBit(0), currentFloor);
+            }
+            if (planLength == stopCount) {
+                planned.clear();
+                planned.or(pending);
+                return plan[0];
+            }
+        }
+
+        search(currentFloor);
+        planned.clear();
+        planned.or(pending);
+        return plan[0];
+    }
+
+    private void collectStops(Agenda agenda, int currentFloor) {
+        stopCount = 0;
+        pending.clear();
+        DestinationIndex destinations = agenda.getDestinationIndex();
+        HallCallIndex hallCalls = agenda.getHallCallIndex();
+        boolean pickups = !agenda.isFull();
+
+        //walk both indexes upwards from the lowest floor, merging them into one sorted list
+        int dropOff = destinations.nextDestination(-1, 1);
+        int pickup = pickups ? hallCalls.nextNonEmpty(-1, 1) : HallCallIndex.NONE;
+        while (dropOff >= 0 || pickup != HallCallIndex.NONE) {
+            int floor = dropOff < 0 ? pickup : pickup == HallCallIndex.NONE ? dropOff : Math.min(dropOff, pickup);
+            double weight = 0;
+            if (floor == dropOff) {
+                List<Person> leaving = destinations.peopleFor(floor);
+                for (int i = 0; i < leaving.size(); i++) {
+                    weight += leaving.get(i).getEffectivePriority();
+                }
+                dropOff = destinations.nextDestination(floor, 1);
+            }
+            if (floor == pickup) {
+                weight += pickupWeight(agenda.getQueuesByFloor().get(floor), agenda);
+                pickup = hallCalls.nextNonEmpty(floor, 1);
+            }
+            if (floor != currentFloor && weight > 0) {
+                addStop(floor, weight);
+            }
+        }
+    }
+
+    // Priorities of the people who would get in here, in boarding order until the car is out of room.
+    // A floor whose first person does not fit is worth nothing, stopping there would not board anyone.
+    private static double pickupWeight(Queue<Person> floorQueue, Agenda agenda) {
+        double freeWeight = agenda.getAvailableWeight();
+        double freeSpace = agenda.getAvailableSpace();
+        double weight = 0;
+        //bucket queues are walked by index, no iterator per floor and decision
+        FloorQueue buckets = floorQueue instanceof FloorQueue ? (FloorQueue) floorQueue : null;
+        Iterator<Person> people = buckets == null ? floorQueue.iterator() : null;
+        for (int i = 0; i < floorQueue.size(); i++) {
+            Person person = buckets != null ? buckets.get(i) : people.next();
+            freeWeight -= person.getWeight();
+            freeSpace -= person.getSurface();
+            if (freeWeight < 0 || freeSpace < 0) {
+                break;
+            }
+            weight += person.getEffectivePriority();
+        }
+        return weight;
+    }
+
+    private void addStop(int floor, double weight) {
+        if (stopCount == stopFloors.length) {
+            int length = stopCount * 2;
+            stopFloors = Arrays.copyOf(stopFloors, length);
+            stopWeights = Arrays.copyOf(stopWeights, length);
+            plan = Arrays.copyOf(plan, length);
+            path = Arrays.copyOf(path, length);
+            used = Arrays.copyOf(used, length);
+            best = Arrays.copyOf(best, length);
+        }
+        stopFloors[stopCount] = floor;
+        stopWeights[stopCount] = weight;
+        stopCount++;
+        pending.set(floor);
+    }
+
+    private void insertCheapest(int floor, int currentFloor) {
+        double bestInsertion = Double.MAX_VALUE;
+        int bestPosition = planLength;
+        for (int position = 0; position <= planLength; position++) {
+            System.arraycopy(plan, position, plan, position + 1, planLength - position);
+            plan[position] = floor;
+            double cost = routeCost(plan, planLength + 1, currentFloor);
+            if (cost < bestInsertion) {
+                bestInsertion = cost;
+                bestPosition = position;
+            }
+            System.arraycopy(plan, position + 1, plan, position, planLength - position);
+        }
+        System.arraycopy(plan, bestPosition, plan, bestPosition + 1, planLength - bestPosition);
+        plan[bestPosition] = floor;
+        planLength++;
+    }
+
+    private void search(int currentFloor) {
+        //start from the better of a sweep and a nearest-stop-first route, so a short budget still gives a sane plan
+        sweepRoute(currentFloor, best);
+        bestCost = routeCost(best, stopCount, currentFloor);
+        nearestFirstRoute(currentFloor, path);
+        double nearestCost = routeCost(path, stopCount, currentFloor);
+        if (nearestCost < bestCost) {
+            bestCost = nearestCost;
+            System.arraycopy(path, 0, best, 0, stopCount);
+        }
+
+        Arrays.fill(used, 0, stopCount, false);
+        nodes = 0;
+        outOfNodes = false;
+        branch(0, currentFloor, 0, 0);
+
+        System.arraycopy(best, 0, plan, 0, stopCount);
+        planLength = stopCount;
+    }
+
+    private void branch(int depth, int position, double time, double cost) {
+        if (depth == stopCount) {
+            if (cost + time < bestCost) {
+                bestCost = cost + time;
+                System.arraycopy(path, 0, best, 0, stopCount);
+            }
+            return;
+        }
+        if (++nodes > maxNodes) {
+            outOfNodes = true;
+        }
+        if (outOfNodes) {
+            return;
+        }
+
+        //every remaining stop is reached no sooner than by going straight to it
+        double bound = cost + time;
+        for (int i = 0; i < stopCount; i++) {
+            if (!used[i]) {
+                bound += stopWeights[i] * (time + travel(position, stopFloors[i]));
+            }
+        }
+        if (bound >= bestCost) {
+            return;
+        }
+
+        for (int i = 0; i < stopCount; i++) {
+            if (!used[i]) {
+                used[i] = true;
+                path[depth] = stopFloors[i];
+                double arrival = time + travel(position, stopFloors[i]);
+                branch(depth + 1, stopFloors[i], arrival + stopCost, cost + stopWeights[i] * arrival);
+                used[i] = false;
+            }
+        }
+    }
+
+    private double routeCost(int[] route, int length, int currentFloor) {
+        double time = 0;
+        double cost = 0;
+        int position = currentFloor;
+        for (int i = 0; i < length; i++) {
+            time += travel(position, route[i]);
+            cost += weightOf(route[i]) * time;
+            time += stopCost;
+            position = route[i];
+        }
+        return cost + time;
+    }
+
+    // Travel time in ms, through the group's topology when there is one
+    private double travel(int fromFloor, int toFloor) {
+        return group == null ? Math.abs(toFloor - fromFloor) * travelTimePerFloor : group.travelTime(fromFloor, toFloor);
+    }
+
+    private double weightOf(int floor) {
+        int index = Arrays.binarySearch(stopFloors, 0, stopCount, floor);
+        return index >= 0 ? stopWeights[index] : 0;
+    }
+
+    // Toward the closer end first, then the other way, like LOOK
+    private void sweepRoute(int currentFloor, int[] route) {
+        int split = 0;
+        while (split < stopCount && stopFloors[split] < currentFloor) {
+            split++;
+        }
+        boolean upFirst = split == 0 || (split < stopCount && stopFloors[split] - currentFloor <= currentFloor - stopFloors[split - 1]);
+        int length = 0;
+        if (upFirst) {
+            for (int i = split; i < stopCount; i++) {
+                route[length++] = stopFloors[i];
+            }
+            for (int i = split - 1; i >= 0; i--) {
+                route[length++] = stopFloors[i];
+            }
+        } else {
+            for (int i = split - 1; i >= 0; i--) {
+                route[length++] = stopFloors[i];
+            }
+            for (int i = split; i < stopCount; i++) {
+                route[length++] = stopFloors[i];
+            }
+        }
+    }
+
+    private void nearestFirstRoute(int currentFloor, int[] route) {
+        Arrays.fill(used, 0, stopCount, false);
+        int position = currentFloor;
+        for (int step = 0; step < stopCount; step++) {
+            int next = -1;
+            for (int i = 0; i < stopCount; i++) {
+                if (!used[i] && (next < 0 || Math.abs(stopFloors[i] - position) < Math.abs(stopFloors[next] - position))) {
+                    next = i;
+                }
+            }
+            used[next] = true;
+            route[step] = stopFloors[next];
+            position = stopFloors[next];
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "planner";
+    }
+}
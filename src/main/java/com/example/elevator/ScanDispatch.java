@@ -0,0 +1,26 @@
+package com.example.elevator;
+
+// SCAN: like LOOK, but every sweep runs to the last served floor before turning around
+public class ScanDispatch extends SweepDispatch {
+
+    @Override
+    protected int stopAhead(Agenda agenda, Elevator elevator, int currentFloor, int direction) {
+        int next = nearestStop(agenda, currentFloor, direction);
+        if (next != NONE) {
+            return next;
+        }
+
+        //nothing ahead, but keep going to the end of the shaft if anyone is waiting at all
+        ServedFloors served = elevator.getServedFloors();
+        int terminal = direction > 0 ? served.getHighest() : served.getLowest();
+        if (terminal != currentFloor && terminal != ServedFloors.NONE && !agenda.areAllQueuesEmpty()) {
+            return terminal;
+        }
+        return NONE;
+    }
+
+    @Override
+    public String getName() {
+        return "scan";
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.elevator;
+
+public class ScenarioReport {
+    private int runs;
+    private long hallCalls;
+    private long rejectedCalls;
+    private long passengersDelivered;
+    private long passengersRemaining;
+    private long simulatedTime;
+
+    //every passenger of every run, plus one value per run to show how much the days differ
+    private final PassengerMetrics metrics = new PassengerMetrics();
+    private final LatencyHistogram p95WaitPerRun = new LatencyHistogram();
+    private final LatencyHistogram maxWaitPerRun = new LatencyHistogram();
+
+    public void add(SimulationSummary summary) {
+        runs++;
+        hallCalls += summary.getHallCalls();
+        rejectedCalls += summary.getRejectedCalls();
+        passengersDelivered += summary.getPassengersDelivered();
+        passengersRemaining += summary.getPassengersRemaining();
+        simulatedTime += summary.getSimulatedTime();
+        metrics.add(summary.getMetrics());
+        p95WaitPerRun.record(summary.getMetrics().getWaitTimes().valueAtPercentile(95));
+        maxWaitPerRun.record(summary.getMetrics().getWaitTimes().getMax());
+    }
+
+    public void add(ScenarioReport other) {
+        runs += other.runs;
+        hallCalls += other.hallCalls;
+        rejectedCalls += other.rejectedCalls;
+        passengersDelivered += other.passengersDelivered;
+        passengersRemaining += other.passengersRemaining;
+        simulatedTime += other.simulatedTime;
+        metrics.add(other.metrics);
+        p95WaitPerRun.add(other.p95WaitPerRun);
+        maxWaitPerRun.add(other.maxWaitPerRun);
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public long getHallCalls() {
+        return hallCalls;
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls;
+    }
+
+    public long getPassengersDelivered() {
+        return passengersDelivered;
+    }
+
+    public long getPassengersRemaining() {
+        return passengersRemaining;
+    }
+
+    public PassengerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public LatencyHistogram getP95WaitPerRun() {
+        return p95WaitPerRun;
+    }
+
+    public LatencyHistogram getMaxWaitPerRun() {
+        return maxWaitPerRun;
+    }
+
+    public void print() {
+        OutputDevice.print("=== Monte Carlo Summary ===");
+        OutputDevice.print("Runs:                 " + runs);
+        OutputDevice.print("Simulated time:       " + String.format("%.1f h", simulatedTime / 3600000.0));
+        OutputDevice.print("Hall calls:           " + hallCalls);
+        OutputDevice.print("Passengers delivered: " + passengersDelivered);
+        OutputDevice.print("Passengers remaining: " + passengersRemaining);
+        OutputDevice.print(String.format("p95 wait per run:     p50 %d ms, p95 %d ms, worst %d ms",
+                p95WaitPerRun.valueAtPercentile(50), p95WaitPerRun.valueAtPercentile(95), p95WaitPerRun.getMax()));
+        OutputDevice.print(String.format("Max wait per run:     p50 %d ms, p95 %d ms, worst %d ms",
+                maxWaitPerRun.valueAtPercentile(50), maxWaitPerRun.valueAtPercentile(95), maxWaitPerRun.getMax()));
+        if (rejectedCalls > 0) {
+            OutputDevice.printWarning(rejectedCalls + " hall calls could not be assigned to any car.");
+        }
+        metrics.print();
+    }
+}
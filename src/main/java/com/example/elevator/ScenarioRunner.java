@@ -0,0 +1,95 @@
+package com.example.elevator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class ScenarioRunner {
+    public static final int DEFAULT_RUNS = 1000;
+    public static final int DEFAULT_CALLS_PER_RUN = 500;
+    public static final long DEFAULT_MEAN_ARRIVAL_GAP = 20000; // simulated ms between hall calls
+
+    //templates are copied for every run, so no two simulations share a car, an agenda or an ID counter
+    private final List<Elevator> templates;
+    private final TrafficMix mix;
+    private final long travelTimePerFloor;
+    private final long doorDwellTime;
+    private final int callsPerRun;
+    private final long meanArrivalGap;
+
+    public ScenarioRunner(List<Elevator> templates, TrafficMix mix, long travelTimePerFloor, long doorDwellTime,
+                          int callsPerRun, long meanArrivalGap) {
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("At least one elevator is needed to run scenarios.");
+        }
+        if (callsPerRun < 0 || meanArrivalGap <= 0) {
+            throw new IllegalArgumentException("Calls per run must not be negative and the arrival gap must be positive.");
+        }
+        for (Elevator template : templates) {
+            DispatchStrategy.create(template.getDispatch()); // fail here rather than inside the pool
+            BoardingMode.fromName(template.getBoarding());
+        }
+        this.templates = new ArrayList<>(templates);
+        this.mix = mix;
+        this.travelTimePerFloor = travelTimePerFloor;
+        this.doorDwellTime = doorDwellTime;
+        this.callsPerRun = callsPerRun;
+        this.meanArrivalGap = meanArrivalGap;
+    }
+
+    // Run independent randomized days on a fork-join pool, run i always uses seed + i
+    public ScenarioReport run(int runs, long seed, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> IntStream.range(0, runs)
+                    .parallel()
+                    .mapToObj(run -> runOne(seed + run))
+                    .collect(ScenarioReport::new, ScenarioReport::add, ScenarioReport::add)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scenario run interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Scenario run failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public SimulationSummary runOne(long seed) {
+        Random random = new Random(seed);
+        IDAllocator ids = new IDAllocator(null); // in-memory, nothing is shared with other runs or written to disk
+
+        ElevatorGroup group = new ElevatorGroup(travelTimePerFloor, doorDwellTime);
+        for (Elevator template : templates) {
+            Elevator car = new Elevator(template.getId(), template.getMaxWeight(), template.getWidth(), template.getDepth(),
+                    template.getFloors().clone(), template.getCurrentFloor());
+            car.setDispatch(template.getDispatch());
+            car.setBoarding(template.getBoarding());
+            group.addCar(car);
+        }
+
+        //exponential gaps give Poisson arrivals, every call goes between two floors of one car so it can be served.
+        //the day is drawn into a primitive store and people are only built as their calls come up
+        PassengerStore day = new PassengerStore(callsPerRun);
+        long time = 0;
+        for (int call = 0; call < callsPerRun; call++) {
+            time += Math.round(-Math.log(1 - random.nextDouble()) * meanArrivalGap);
+            int[] floors = templates.get(random.nextInt(templates.size())).getFloors();
+            if (floors.length < 2) {
+                continue;
+            }
+            int start = floors[random.nextInt(floors.length)];
+            int destination = floors[random.nextInt(floors.length - 1)];
+            if (destination == start) {
+                destination = floors[floors.length - 1];
+            }
+            mix.addTo(day, time, start, destination, random, ids);
+        }
+        Simulation simulation = new Simulation(group);
+        simulation.setArrivalSource(day.arrivals());
+        return simulation.run();
+    }
+}
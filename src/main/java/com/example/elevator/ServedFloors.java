@@ -0,0 +1,101 @@
+package com.example.elevator;
+
+import java.util.BitSet;
+
+public class ServedFloors {
+    public static final int NONE = Integer.MIN_VALUE;
+
+    //floors are stored relative to base so basements (negative floors) work too
+    private final int base;
+    private final BitSet mask = new BitSet();
+    private final int[] nextUp;
+    private final int[] nextDown;
+    private final int lowest;
+    private final int highest;
+    private final int count;
+
+    public ServedFloors(int[] floors) {
+        int low = Integer.MAX_VALUE;
+        int high = Integer.MIN_VALUE;
+        for (int floor : floors) {
+            low = Math.min(low, floor);
+            high = Math.max(high, floor);
+        }
+
+        if (floors.length == 0) {
+            base = 0;
+            lowest = NONE;
+            highest = NONE;
+            nextUp = new int[0];
+            nextDown = new int[0];
+            count = 0;
+            return;
+        }
+
+        base = Math.min(low, 0);
+        lowest = low;
+        highest = high;
+        for (int floor : floors) {
+            mask.set(floor - base);
+        }
+        count = mask.cardinality();
+
+        //precompute the next served floor in each direction for every floor in range
+        int span = high - base + 1;
+        nextUp = new int[span];
+        nextDown = new int[span];
+        int next = NONE;
+        for (int i = span - 1; i >= 0; i--) {
+            nextUp[i] = next;
+            if (mask.get(i)) {
+                next = i + base;
+            }
+        }
+        int previous = NONE;
+        for (int i = 0; i < span; i++) {
+            nextDown[i] = previous;
+            if (mask.get(i)) {
+                previous = i + base;
+            }
+        }
+    }
+
+    public boolean contains(int floor) {
+        int index = floor - base;
+        return index >= 0 && index < nextUp.length && mask.get(index);
+    }
+
+    // Closest served floor strictly above the floor, or NONE
+    public int nextAbove(int floor) {
+        if (count == 0 || floor >= highest) {
+            return NONE;
+        }
+        if (floor < base) {
+            return lowest;
+        }
+        return nextUp[floor - base];
+    }
+
+    // Closest served floor strictly below the floor, or NONE
+    public int nextBelow(int floor) {
+        if (count == 0 || floor <= lowest) {
+            return NONE;
+        }
+        if (floor > highest) {
+            return highest;
+        }
+        return nextDown[floor - base];
+    }
+
+    public int getLowest() {
+        return lowest;
+    }
+
+    public int getHighest() {
+        return highest;
+    }
+
+    public int size() {
+        return count;
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.elevator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+public class Simulation {
+    // simulated milliseconds
+    public static final long DEFAULT_TRAVEL_TIME_PER_FLOOR = 2000;
+    public static final long DEFAULT_DOOR_DWELL_TIME = 4000;
+
+    private final ElevatorGroup group;
+    private final long doorDwellTime;
+    private final CarState[] cars;
+
+    private final PriorityQueue<SimulationEvent> events = new PriorityQueue<>();
+
+    //streamed hall calls, only the next one is held in the event queue at any time
+    private ArrivalSource arrivals;
+    private Person pendingArrival;
+    private long sequence;
+    private long now;
+
+    private long eventsProcessed;
+    private long hallCalls;
+    private long rejectedCalls;
+    private long stops;
+    private long floorsTravelled;
+    private long passengersBoarded;
+    private long passengersDelivered;
+
+    private static class CarState {
+        private final Elevator elevator;
+        private final Agenda agenda;
+
+        // the car parks when it has nothing to do and wakes up on the next hall call
+        private boolean idle = true;
+        private int lastStopFloor = Integer.MIN_VALUE;
+        private boolean lastStopMoved;
+
+        private CarState(Elevator elevator, Agenda agenda) {
+            this.elevator = elevator;
+            this.agenda = agenda;
+        }
+    }
+
+    public Simulation(Elevator elevator, Agenda agenda, long travelTimePerFloor, long doorDwellTime) {
+        this(singleCar(elevator, agenda, travelTimePerFloor, doorDwellTime));
+    }
+
+    public Simulation(ElevatorGroup group) {
+        this.group = group;
+        this.doorDwellTime = group.getDoorDwellTime();
+        this.cars = new CarState[group.size()];
+        for (int car = 0; car < cars.length; car++) {
+            cars[car] = new CarState(group.getElevator(car), group.getAgenda(car));
+        }
+    }
+
+    private static ElevatorGroup singleCar(Elevator elevator, Agenda agenda, long travelTimePerFloor, long doorDwellTime) {
+        ElevatorGroup group = new ElevatorGroup(travelTimePerFloor, doorDwellTime);
+        group.addCar(elevator, agenda);
+        return group;
+    }
+
+    public void scheduleHallCall(long time, Person person, int startFloor, int destinationFloor) {
+        if (time < now) {
+            throw new IllegalArgumentException("Cannot schedule a hall call in the past: " + time);
+        }
+        events.add(new SimulationEvent(SimulationEvent.Type.HALL_CALL, time, sequence++, -1, person, startFloor, destinationFloor));
+    }
+
+    // Continue from a later point in simulated time, e.g. the time a checkpoint was taken at
+    public void setStartTime(long time) {
+        if (eventsProcessed > 0 || !events.isEmpty()) {
+            throw new IllegalStateException("The start time must be set before anything is scheduled.");
+        }
+        this.now = time;
+    }
+
+    // Pull hall calls lazily from the source while running, e.g. a recorded trace
+    public void setArrivalSource(ArrivalSource arrivals) {
+        this.arrivals = arrivals;
+    }
+
+    public SimulationSummary run() {
+        long startNanos = System.nanoTime();
+
+        //passenger metrics follow simulated time while the run lasts
+        for (CarState state : cars) {
+            state.agenda.setClock(() -> now);
+            state.agenda.restampAfter(now);
+            state.agenda.getDispatchStrategy().setTiming(group);
+        }
+
+        //people already queued on the agendas are served from the start time
+        for (int car = 0; car < cars.length; car++) {
+            if (!cars[car].agenda.areAllQueuesEmpty()) {
+                wake(car);
+            }
+        }
+
+        scheduleNextArrival();
+
+        while (!events.isEmpty()) {
+            SimulationEvent event = events.poll();
+            now = event.getTime();
+            eventsProcessed++;
+
+            switch (event.getType()) {
+                case HALL_CALL:
+                    onHallCall(event);
+                    break;
+                case CAR_ARRIVAL:
+                    onCarArrival(event);
+                    break;
+                case DOOR_OPEN:
+                    onDoorOpen(event.getCar());
+                    break;
+                case BOARDING_DONE:
+                    onBoardingDone(event.getCar());
+                    break;
+                case DOOR_CLOSE:
+                    onDoorClose(event.getCar());
+                    break;
+            }
+        }
+
+        PassengerMetrics metrics = new PassengerMetrics();
+        for (CarState state : cars) {
+            state.agenda.setClock(Agenda.SYSTEM_CLOCK);
+            metrics.add(state.agenda.getMetrics());
+        }
+
+        return new SimulationSummary(cars.length, eventsProcessed, hallCalls, rejectedCalls, stops, floorsTravelled,
+                passengersBoarded, passengersDelivered, countWaiting(), now, System.nanoTime() - startNanos, metrics);
+    }
+
+    private void onHallCall(SimulationEvent event) {
+        if (event.getPerson() == pendingArrival) {
+            scheduleNextArrival();
+        }
+        hallCalls++;
+        int car = group.assignHallCall(event.getPerson(), event.getStartFloor(), event.getDestinationFloor());
+        if (car < 0) {
+            rejectedCalls++;
+        } else if (cars[car].idle) {
+            wake(car);
+        }
+    }
+
+    private void onCarArrival(SimulationEvent event) {
+        CarState state = cars[event.getCar()];
+        int target = event.getDestinationFloor();
+        int departureFloor = state.elevator.getCurrentFloor();
+        int currentFloor = departureFloor;
+
+        // same movement rules as the interactive session
+        while (target != currentFloor) {
+            if (target > currentFloor) {
+                state.elevator.moveUp();
+            } else {
+                state.elevator.moveDown();
+            }
+            if (state.elevator.getCurrentFloor() == currentFloor) {
+                break; // the car cannot go any further in this direction
+            }
+            currentFloor = state.elevator.getCurrentFloor();
+        }
+
+        if (currentFloor == departureFloor) {
+            //stuck, park until something changes
+            state.idle = true;
+            return;
+        }
+        schedule(SimulationEvent.Type.DOOR_OPEN, now, event.getCar());
+    }
+
+    private void onDoorOpen(int car) {
+        CarState state = cars[car];
+        stops++;
+        int insideBefore = state.agenda.getQueueInside().size();
+        state.agenda.unboardPassengers(state.elevator);
+        int delivered = insideBefore - state.agenda.getQueueInside().size();
+        passengersDelivered += delivered;
+
+        state.lastStopFloor = state.elevator.getCurrentFloor();
+        state.lastStopMoved = delivered > 0;
+        schedule(SimulationEvent.Type.BOARDING_DONE, now + doorDwellTime, car);
+    }
+
+    private void onBoardingDone(int car) {
+        //anyone who arrived while the doors were open gets in as well
+        CarState state = cars[car];
+        int insideBefore = state.agenda.getQueueInside().size();
+        state.agenda.boardPassengers(state.elevator);
+        int boarded = state.agenda.getQueueInside().size() - insideBefore;
+        passengersBoarded += boarded;
+
+        state.lastStopMoved |= boarded > 0;
+        schedule(SimulationEvent.Type.DOOR_CLOSE, now, car);
+    }
+
+    private void onDoorClose(int car) {
+        CarState state = cars[car];
+        if (state.agenda.areAllQueuesEmpty()) {
+            state.idle = true;
+            return;
+        }
+
+        int currentFloor = state.elevator.getCurrentFloor();
+        int nextFloor = state.agenda.determineNextDestination(state.elevator);
+
+        if (nextFloor == currentFloor) {
+            //reopen only if the last stop here changed something, otherwise wait for the next call
+            if (state.lastStopFloor != currentFloor || state.lastStopMoved) {
+                schedule(SimulationEvent.Type.DOOR_OPEN, now, car);
+            } else {
+                state.idle = true;
+            }
+            return;
+        }
+
+        floorsTravelled += Math.abs(nextFloor - currentFloor);
+        events.add(new SimulationEvent(SimulationEvent.Type.CAR_ARRIVAL, now + group.travelTime(currentFloor, nextFloor),
+                sequence++, car, null, currentFloor, nextFloor));
+    }
+
+    private void scheduleNextArrival() {
+        pendingArrival = null;
+        if (arrivals == null) {
+            return;
+        }
+        try {
+            HallCall call = arrivals.next();
+            if (call != null) {
+                pendingArrival = call.getPerson();
+                scheduleHallCall(Math.max(now, call.getTime()), call.getPerson(), call.getStartFloor(), call.getDestinationFloor());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the next hall call: " + e.getMessage(), e);
+        }
+    }
+
+    private void wake(int car) {
+        cars[car].idle = false;
+        cars[car].lastStopFloor = Integer.MIN_VALUE;
+        schedule(SimulationEvent.Type.DOOR_CLOSE, now, car);
+    }
+
+    private void schedule(SimulationEvent.Type type, long time, int car) {
+        events.add(new SimulationEvent(type, time, sequence++, car));
+    }
+
+    private long countWaiting() {
+        long waiting = 0;
+        for (CarState state : cars) {
+            waiting += state.agenda.getQueueInside().size();
+            for (Map.Entry<Integer, Queue<Person>> entry : state.agenda.getQueuesByFloor().entrySet()) {
+                waiting += entry.getValue().size();
+            }
+        }
+        return waiting;
+    }
+}
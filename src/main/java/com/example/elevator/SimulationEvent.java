@@ -0,0 +1,64 @@
+package com.example.elevator;
+
+public class SimulationEvent implements Comparable<SimulationEvent> {
+
+    public enum Type {
+        HALL_CALL, CAR_ARRIVAL, DOOR_OPEN, BOARDING_DONE, DOOR_CLOSE
+    }
+
+    private final Type type;
+    private final long time;
+    private final long sequence;
+    private final int car;
+
+    // hall call details, car arrivals only use destinationFloor
+    private final Person person;
+    private final int startFloor;
+    private final int destinationFloor;
+
+    public SimulationEvent(Type type, long time, long sequence, int car) {
+        this(type, time, sequence, car, null, 0, 0);
+    }
+
+    public SimulationEvent(Type type, long time, long sequence, int car, Person person, int startFloor, int destinationFloor) {
+        this.type = type;
+        this.time = time;
+        this.sequence = sequence;
+        this.car = car;
+        this.person = person;
+        this.startFloor = startFloor;
+        this.destinationFloor = destinationFloor;
+    }
+
+    @Override
+    public int compareTo(SimulationEvent other) {
+        //earlier events first, ties keep scheduling order
+        int byTime = Long.compare(time, other.time);
+        return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    // Index of the car in its group, -1 for hall calls that are not assigned yet
+    public int getCar() {
+        return car;
+    }
+
+    public Person getPerson() {
+        return person;
+    }
+
+    public int getStartFloor() {
+        return startFloor;
+    }
+
+    public int getDestinationFloor() {
+        return destinationFloor;
+    }
+}
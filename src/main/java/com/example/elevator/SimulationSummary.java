@@ -0,0 +1,107 @@
+package com.example.elevator;
+
+public class SimulationSummary {
+    private final int cars;
+    private final long eventsProcessed;
+    private final long hallCalls;
+    private final long rejectedCalls;
+    private final long stops;
+    private final long floorsTravelled;
+    private final long passengersBoarded;
+    private final long passengersDelivered;
+    private final long passengersRemaining;
+    private final long simulatedTime;
+    private final long wallTimeNanos;
+    private final PassengerMetrics metrics;
+
+    public SimulationSummary(int cars, long eventsProcessed, long hallCalls, long rejectedCalls, long stops,
+                             long floorsTravelled, long passengersBoarded, long passengersDelivered,
+                             long passengersRemaining, long simulatedTime, long wallTimeNanos, PassengerMetrics metrics) {
+        this.cars = cars;
+        this.eventsProcessed = eventsProcessed;
+        this.hallCalls = hallCalls;
+        this.rejectedCalls = rejectedCalls;
+        this.stops = stops;
+        this.floorsTravelled = floorsTravelled;
+        this.passengersBoarded = passengersBoarded;
+        this.passengersDelivered = passengersDelivered;
+        this.passengersRemaining = passengersRemaining;
+        this.simulatedTime = simulatedTime;
+        this.wallTimeNanos = wallTimeNanos;
+        this.metrics = metrics;
+    }
+
+    public int getCars() {
+        return cars;
+    }
+
+    public long getEventsProcessed() {
+        return eventsProcessed;
+    }
+
+    public long getHallCalls() {
+        return hallCalls;
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls;
+    }
+
+    public long getStops() {
+        return stops;
+    }
+
+    public long getFloorsTravelled() {
+        return floorsTravelled;
+    }
+
+    public long getPassengersBoarded() {
+        return passengersBoarded;
+    }
+
+    public long getPassengersDelivered() {
+        return passengersDelivered;
+    }
+
+    public long getPassengersRemaining() {
+        return passengersRemaining;
+    }
+
+    public long getSimulatedTime() {
+        return simulatedTime;
+    }
+
+    public long getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    // Wait and ride times of every car, in simulated milliseconds
+    public PassengerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public double getEventsPerSecond() {
+        return wallTimeNanos == 0 ? 0 : eventsProcessed * 1e9 / wallTimeNanos;
+    }
+
+    public void print() {
+        OutputDevice.print("=== Simulation Summary ===");
+        OutputDevice.print("Cars:                 " + cars);
+        OutputDevice.print("Simulated time:       " + String.format("%.1f s", simulatedTime / 1000.0));
+        OutputDevice.print("Hall calls:           " + hallCalls);
+        OutputDevice.print("Passengers boarded:   " + passengersBoarded);
+        OutputDevice.print("Passengers delivered: " + passengersDelivered);
+        OutputDevice.print("Passengers remaining: " + passengersRemaining);
+        OutputDevice.print("Stops:                " + stops);
+        OutputDevice.print("Floors travelled:     " + floorsTravelled);
+        OutputDevice.print("Events processed:     " + eventsProcessed
+                + String.format(" (%.0f events/s)", getEventsPerSecond()));
+        if (rejectedCalls > 0) {
+            OutputDevice.printWarning(rejectedCalls + " hall calls could not be assigned to any car.");
+        }
+        if (passengersRemaining > 0) {
+            OutputDevice.printWarning(passengersRemaining + " passengers could not be served.");
+        }
+        metrics.print();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.elevator;
+
+// Shared base of the directional strategies, the car keeps moving one way while there is work ahead
+public abstract class SweepDispatch implements DispatchStrategy {
+    protected static final int NONE = -1;
+
+    protected int direction; // +1 up, -1 down, 0 until the first request
+
+    @Override
+    public int nextDestination(Agenda agenda, Elevator elevator) {
+        int currentFloor = elevator.getCurrentFloor();
+        if (direction == 0) {
+            direction = nearestStop(agenda, currentFloor, 1) != NONE ? 1 : -1;
+        }
+
+        int next = stopAhead(agenda, elevator, currentFloor, direction);
+        if (next == NONE) {
+            direction = -direction;
+            next = stopAhead(agenda, elevator, currentFloor, direction);
+        }
+        if (next == NONE) {
+            //only a pickup here is left, or nothing at all
+            return currentFloor;
+        }
+        return next;
+    }
+
+    // Next floor to go to when moving in the direction, NONE to turn around
+    protected abstract int stopAhead(Agenda agenda, Elevator elevator, int currentFloor, int direction);
+
+    public int getDirection() {
+        return direction;
+    }
+
+    // Closest drop-off or pickup strictly past the current floor, pickups only count while there is room
+    protected static int nearestStop(Agenda agenda, int currentFloor, int direction) {
+        int dropOff = agenda.getDestinationIndex().nextDestination(currentFloor, direction);
+        int pickup = agenda.isFull() ? NONE : agenda.getHallCallIndex().nextNonEmpty(currentFloor, direction);
+        return closer(dropOff, pickup, direction);
+    }
+
+    protected static int closer(int first, int second, int direction) {
+        if (first == NONE) {
+            return second;
+        }
+        if (second == NONE) {
+            return first;
+        }
+        return (second - first) * direction < 0 ? second : first;
+    }
+}
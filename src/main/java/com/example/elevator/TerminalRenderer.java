@@ -0,0 +1,235 @@
+package com.example.elevator;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Draws the floor view of a live session on its own thread. The dispatcher only copies the agenda into a Snapshot.
+// The previous frame is kept, and only rows that changed are rewritten in place with ANSI cursor positioning,
+// so the screen is never wiped. Snapshots that arrive faster than the frame rate are skipped, the latest one wins.
+public class TerminalRenderer implements AutoCloseable {
+    public static final int DEFAULT_FRAMES_PER_SECOND = 20;
+
+    private static final String CLEAR_SCREEN = "\033[H\033[2J";
+    private static final String CLEAR_LINE_END = "\033[K";
+    private static final String CLEAR_BELOW = "\033[J";
+    private static final String SEPARATOR = "--------------------------------------";
+
+    private final PrintStream out;
+    private final long frameNanos;
+    private final Thread thread;
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>();
+    private volatile boolean closed;
+    private volatile long submitted; // snapshots handed over so far
+    private volatile long drawn;     // sequence of the last snapshot on screen, older ones were skipped
+    private volatile boolean fullRedraw = true;
+
+    //drawing thread only
+    private String[] previous = new String[0];
+    private long lastFrameAt;
+    private final StringBuilder frame = new StringBuilder(4096);
+    private final StringBuilder row = new StringBuilder(256);
+
+    public TerminalRenderer(PrintStream out, int framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("Frame rate must be positive: " + framesPerSecond);
+        }
+        this.out = out;
+        this.frameNanos = TimeUnit.SECONDS.toNanos(1) / framesPerSecond;
+        this.thread = new Thread(this::drawLoop, "terminal-renderer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Copy the state on the calling thread and draw it later, never waits for the terminal
+    public void submit(String title, Elevator elevator, Agenda agenda) {
+        Snapshot snapshot = Snapshot.of(title, elevator, agenda);
+        snapshot.sequence = ++submitted; // only the dispatch thread submits
+        latest.set(snapshot);
+        LockSupport.unpark(thread);
+    }
+
+    // Block until the last submitted snapshot is on screen, e.g. before printing a prompt under it
+    public void awaitFrame() {
+        long target = submitted;
+        while (drawn < target && thread.isAlive()) {
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    // Redraw everything on the next frame, after other output may have scrolled the screen
+    public void invalidate() {
+        fullRedraw = true;
+    }
+
+    @Override
+    public void close() {
+        awaitFrame();
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drawLoop() {
+        while (!closed) {
+            Snapshot snapshot = latest.get();
+            if (snapshot == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            long wait = lastFrameAt + frameNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait); // more snapshots may come in meanwhile, only the last one is drawn
+                continue;
+            }
+            snapshot = latest.getAndSet(null);
+            if (snapshot != null) {
+                draw(snapshot);
+                lastFrameAt = System.nanoTime();
+                drawn = snapshot.sequence;
+            }
+        }
+    }
+
+    private void draw(Snapshot snapshot) {
+        String[] lines = snapshot.lines(row);
+        frame.setLength(0);
+        boolean redraw = fullRedraw || lines.length != previous.length;
+        if (redraw) {
+            frame.append(CLEAR_SCREEN);
+        }
+        for (int i = 0; i < lines.length; i++) {
+            if (redraw || !lines[i].equals(previous[i])) {
+                frame.append("\033[").append(i + 1).append(";1H").append(lines[i]).append(CLEAR_LINE_END);
+            }
+        }
+        //park the cursor under the frame and wipe whatever was printed there since the last one
+        frame.append("\033[").append(lines.length + 1).append(";1H").append(CLEAR_BELOW);
+
+        OutputDevice.flush(); // anything queued for the terminal goes first
+        if (OutputDevice.isEnabled(OutputDevice.Level.OUTPUT)) {
+            out.print(frame);
+            out.flush();
+        }
+        previous = lines;
+        fullRedraw = false;
+    }
+
+    // What a frame shows, copied from the agenda on the dispatch thread. Each person is three ints:
+    // first letter of the type, destination and effective priority. The car's people come first.
+    public static final class Snapshot {
+        private final String title;
+        private final int carFloor;
+        private final int[] floors;     // served floors, top down
+        private final int[] queueStart; // people of floors[i] are [queueStart[i], queueStart[i + 1]), in person units
+        private final int insideCount;
+        private final int[] people;
+        private long sequence;
+
+        private Snapshot(String title, int carFloor, int[] floors, int[] queueStart, int insideCount, int[] people) {
+            this.title = title;
+            this.carFloor = carFloor;
+            this.floors = floors;
+            this.queueStart = queueStart;
+            this.insideCount = insideCount;
+            this.people = people;
+        }
+
+        public static Snapshot of(String title, Elevator elevator, Agenda agenda) {
+            ServedFloors served = elevator.getServedFloors();
+            int[] floors = new int[served.size()];
+            int floorCount = 0;
+            for (int floor = served.getHighest(); floor != ServedFloors.NONE; floor = served.nextBelow(floor)) {
+                floors[floorCount++] = floor;
+            }
+
+            Queue<Person> inside = agenda.getQueueInside();
+            int[] people = new int[3 * (inside.size() + agenda.getWaitingCount())];
+            int count = 0;
+            for (Person person : inside) {
+                count = put(people, count, person);
+            }
+            int insideCount = count;
+
+            int[] queueStart = new int[floorCount + 1];
+            for (int i = 0; i < floorCount; i++) {
+                queueStart[i] = count;
+                Queue<Person> queue = agenda.getQueuesByFloor().get(floors[i]);
+                if (queue != null) {
+                    for (Person person : queue) {
+                        if (3 * count == people.length) {
+                            people = Arrays.copyOf(people, people.length * 2 + 3);
+                        }
+                        count = put(people, count, person);
+                    }
+                }
+            }
+            queueStart[floorCount] = count;
+            return new Snapshot(title, elevator.getCurrentFloor(), Arrays.copyOf(floors, floorCount), queueStart, insideCount, people);
+        }
+
+        private static int put(int[] people, int index, Person person) {
+            people[3 * index] = person.getType().charAt(0);
+            people[3 * index + 1] = person.getDestinationFloor();
+            people[3 * index + 2] = person.getEffectivePriority();
+            return index + 1;
+        }
+
+        // Title, one row per floor from the top down, then the separator
+        String[] lines(StringBuilder row) {
+            String[] lines = new String[floors.length + 2];
+            lines[0] = title;
+            for (int i = 0; i < floors.length; i++) {
+                row.setLength(0);
+                int floor = floors[i];
+
+                // Floor number, right-aligned to two digits
+                if (floor >= 0 && floor < 10) {
+                    row.append(' ');
+                }
+                row.append(floor).append(" |");
+
+                // Elevator
+                if (floor == carFloor) {
+                    row.append('[');
+                    if (insideCount > 0) {
+                        appendPeople(row, 0, insideCount);
+                    } else {
+                        row.append(' ');
+                    }
+                    row.append("] ");
+                } else {
+                    row.append("    "); // Empty space where the elevator isn't
+                }
+
+                // Floor queue
+                row.append("Queue: ");
+                if (queueStart[i] == queueStart[i + 1]) {
+                    row.append('-');
+                } else {
+                    appendPeople(row, queueStart[i], queueStart[i + 1]);
+                }
+                lines[i + 1] = row.toString();
+            }
+            lines[floors.length + 1] = SEPARATOR;
+            return lines;
+        }
+
+        // e.g. P(d:4 p:2)
+        private void appendPeople(StringBuilder row, int from, int to) {
+            for (int i = from; i < to; i++) {
+                row.append((char) people[3 * i])
+                        .append("(d:").append(people[3 * i + 1])
+                        .append(" p:").append(people[3 * i + 2]).append(") ");
+            }
+        }
+    }
+}
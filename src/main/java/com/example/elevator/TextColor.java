@@ -7,19 +7,41 @@ public class TextColor {
     public static final String YELLOW = "\u001B[33m";
     public static final String CYAN = "\u001B[36m";
 
+    //built once, not for every message
+    private static final String INFO_LABEL = "[" + CYAN + "INFO" + RESET + "]";
+    private static final String ERROR_LABEL = "[" + RED + "ERROR" + RESET + "]";
+    private static final String WARNING_LABEL = "[" + YELLOW + "WARNING" + RESET + "]";
+    private static final String USAGE_LABEL = "[" + GREEN + "USAGE" + RESET + "]";
+
     public static String infoLabel() {
-        return "[" + CYAN + "INFO" + RESET + "]";
+        return INFO_LABEL;
     }
 
     public static String errorLabel() {
-        return "[" + RED + "ERROR" + RESET + "]";
+        return ERROR_LABEL;
     }
 
     public static String warningLabel() {
-        return "[" + YELLOW + "WARNING" + RESET + "]";
+        return WARNING_LABEL;
     }
 
     public static String usageLabel() {
-        return "[" + GREEN + "USAGE" + RESET + "]";
+        return USAGE_LABEL;
+    }
+
+    // Colored label for the level, null for plain output
+    public static String label(OutputDevice.Level level) {
+        switch (level) {
+            case INFO:
+                return INFO_LABEL;
+            case WARNING:
+                return WARNING_LABEL;
+            case ERROR:
+                return ERROR_LABEL;
+            case USAGE:
+                return USAGE_LABEL;
+            default:
+                return null;
+        }
     }
 }
@@ -0,0 +1,131 @@
+package com.example.elevator;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+// Replays captured traffic from a JSON-lines trace, one hall call per line, e.g.
+// {"time": 1718000000000, "type": "patient", "weight": 70, "height": 165, "startFloor": 0, "destinationFloor": 4, "walkingAid": "Frame"}
+// Times are milliseconds, the first call of the trace is replayed at time zero.
+public class TraceReader implements ArrivalSource {
+    private final String name;
+    private final BufferedReader reader;
+    private final IDAllocator ids = new IDAllocator(null); // same IDs on every replay of a trace
+
+    private static final int MAX_WARNINGS = 10;
+    private static final long MISSING = Long.MIN_VALUE;
+    private static final int MISSING_FLOOR = Integer.MIN_VALUE;
+
+    private long firstTime = Long.MIN_VALUE;
+    private long lastTime;
+    private long lineNumber;
+    private long skippedLines;
+
+    public TraceReader(String path) throws IOException {
+        this.name = new File(path).getName();
+        this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    @Override
+    public HallCall next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                return parse(new JsonReader(new StringReader(line)));
+            } catch (IOException | JsonParseException | IllegalStateException | IllegalArgumentException e) {
+                //a bad line is skipped the same way on every replay, so results stay reproducible
+                if (++skippedLines <= MAX_WARNINGS) {
+                    String reason = e instanceof MalformedJsonException ? "not a JSON object" : e.getMessage();
+                    OutputDevice.printWarning("Skipping line " + lineNumber + " of " + name + ": " + reason);
+                }
+            }
+        }
+        return null;
+    }
+
+    private HallCall parse(JsonReader record) throws IOException {
+        long time = MISSING;
+        String type = null;
+        int weight = 0;
+        int height = 0;
+        int startFloor = MISSING_FLOOR;
+        int destinationFloor = MISSING_FLOOR;
+        int emergencyLevel = 0;
+        WalkingAid walkingAid = null;
+
+        record.beginObject();
+        while (record.hasNext()) {
+            String field = record.nextName();
+            if (record.peek() == JsonToken.NULL) {
+                record.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "time":
+                    time = record.nextLong();
+                    break;
+                case "type":
+                    type = record.nextString();
+                    break;
+                case "weight":
+                    weight = record.nextInt();
+                    break;
+                case "height":
+                    height = record.nextInt();
+                    break;
+                case "startFloor":
+                    startFloor = record.nextInt();
+                    break;
+                case "destinationFloor":
+                    destinationFloor = record.nextInt();
+                    break;
+                case "emergencyLevel":
+                    emergencyLevel = record.nextInt();
+                    break;
+                case "walkingAid":
+                    walkingAid = PersonTypeAdapter.parseWalkingAid(record.nextString());
+                    break;
+                default:
+                    record.skipValue();
+                    break;
+            }
+        }
+        record.endObject();
+
+        if (time == MISSING || type == null || startFloor == MISSING_FLOOR || destinationFloor == MISSING_FLOOR) {
+            throw new IllegalArgumentException("missing time, type, startFloor or destinationFloor");
+        }
+        if (weight <= 0 || height <= 0) {
+            throw new IllegalArgumentException("weight and height must be positive");
+        }
+        if (firstTime == Long.MIN_VALUE) {
+            firstTime = time;
+        }
+        time -= firstTime;
+        if (time < lastTime) {
+            throw new IllegalArgumentException("time goes backwards (" + (time + firstTime) + ")");
+        }
+
+        IDAllocator.Kind kind = PersonTypeAdapter.kindOf(type);
+        Person person = PersonTypeAdapter.create(kind, ids.allocate(kind), weight, height, emergencyLevel, walkingAid);
+        lastTime = time;
+        return new HallCall(time, person, startFloor, destinationFloor);
+    }
+
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
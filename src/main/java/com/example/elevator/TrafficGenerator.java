@@ -0,0 +1,194 @@
+package com.example.elevator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Synthetic hall calls for a day made of traffic profiles played one after the other, e.g. morning, visiting, codeblue.
+// Calls are drawn one at a time as the simulation asks for them, so a day of any length takes no memory.
+// The same seed, cars and phases always give the same calls.
+public class TrafficGenerator implements ArrivalSource {
+    private static final double MILLIS_PER_MINUTE = 60_000;
+
+    //a profile and the simulated time it lasts
+    private static final class Phase {
+        private final TrafficProfile profile;
+        private final long duration;
+
+        private Phase(TrafficProfile profile, long duration) {
+            this.profile = profile;
+            this.duration = duration;
+        }
+    }
+
+    private final Random random;
+    private final IDAllocator ids;
+    private final double rateScale;
+    private final List<Phase> phases = new ArrayList<>();
+
+    //floors where a call can start, with the cars that stop there and reach at least one other floor
+    private final int[] floors;
+    private final int[][] carsByFloor;
+    private final int[][] carFloors; // sorted
+    private final int lobby;
+
+    //current phase, the floor rates add up into cumulative so a floor is found by binary search
+    private int phase = -1;
+    private long phaseEnd;
+    private final double[] cumulative;
+    private double totalRate; // calls per simulated ms
+    private double time;
+
+    public TrafficGenerator(List<Elevator> elevators, long seed) {
+        this(elevators, seed, 1.0, new IDAllocator(null)); // in-memory IDs, nothing is written to disk
+    }
+
+    // rateScale multiplies every profile rate, e.g. 100 for a load test
+    public TrafficGenerator(List<Elevator> elevators, long seed, double rateScale, IDAllocator ids) {
+        if (rateScale <= 0) {
+            throw new IllegalArgumentException("The rate scale must be positive: " + rateScale);
+        }
+        this.random = new Random(seed);
+        this.ids = ids;
+        this.rateScale = rateScale;
+
+        carFloors = new int[elevators.size()][];
+        int[] building = new int[0];
+        for (int car = 0; car < carFloors.length; car++) {
+            carFloors[car] = elevators.get(car).getFloors().clone();
+            Arrays.sort(carFloors[car]);
+            building = union(building, carFloors[car]);
+        }
+
+        int served = 0;
+        int[] startFloors = new int[building.length];
+        int[][] cars = new int[building.length][];
+        for (int floor : building) {
+            int[] serving = new int[carFloors.length];
+            int count = 0;
+            for (int car = 0; car < carFloors.length; car++) {
+                if (carFloors[car].length > 1 && Arrays.binarySearch(carFloors[car], floor) >= 0) {
+                    serving[count++] = car;
+                }
+            }
+            if (count > 0) {
+                startFloors[served] = floor;
+                cars[served++] = Arrays.copyOf(serving, count);
+            }
+        }
+        if (served == 0) {
+            throw new IllegalArgumentException("No elevator serves two floors, there is nowhere to generate calls.");
+        }
+        this.floors = Arrays.copyOf(startFloors, served);
+        this.carsByFloor = Arrays.copyOf(cars, served);
+        this.cumulative = new double[served];
+        this.lobby = floors[0];
+    }
+
+    // Append a phase, phases run back to back from simulated time zero
+    public TrafficGenerator addPhase(TrafficProfile profile, long durationMillis) {
+        if (phase >= 0) {
+            throw new IllegalStateException("Phases must be added before the first call is drawn.");
+        }
+        if (durationMillis <= 0) {
+            throw new IllegalArgumentException("A phase must last a positive time: " + durationMillis);
+        }
+        phases.add(new Phase(profile, durationMillis));
+        return this;
+    }
+
+    // Total length of the day in simulated ms
+    public long getDuration() {
+        long duration = 0;
+        for (Phase added : phases) {
+            duration += added.duration;
+        }
+        return duration;
+    }
+
+    @Override
+    public HallCall next() {
+        if (phase < 0) {
+            startPhase(0, 0);
+        }
+        //piecewise-constant rates: a gap that runs past the end of a phase is drawn again from there, which is exact
+        //for Poisson arrivals because they have no memory
+        while (phase < phases.size()) {
+            if (totalRate > 0) {
+                double gap = -Math.log(1 - random.nextDouble()) / totalRate;
+                if (time + gap < phaseEnd) {
+                    time += gap;
+                    return call(phases.get(phase).profile);
+                }
+            }
+            startPhase(phase + 1, phaseEnd);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void startPhase(int index, long start) {
+        phase = index;
+        time = start;
+        if (index >= phases.size()) {
+            return;
+        }
+        Phase current = phases.get(index);
+        phaseEnd = start + current.duration;
+        double sum = 0;
+        for (int i = 0; i < floors.length; i++) {
+            sum += current.profile.getRate(floors[i], lobby) * rateScale / MILLIS_PER_MINUTE;
+            cumulative[i] = sum;
+        }
+        totalRate = sum;
+    }
+
+    private HallCall call(TrafficProfile profile) {
+        //the floor comes up with a chance proportional to its rate
+        int index = Arrays.binarySearch(cumulative, random.nextDouble() * totalRate);
+        index = index >= 0 ? index + 1 : -index - 1;
+        index = Math.min(index, floors.length - 1);
+        while (cumulative[index] == (index == 0 ? 0 : cumulative[index - 1])) {
+            index++; // a floor without traffic of its own, move on to the next one that has some
+        }
+        int start = floors[index];
+
+        //one car that stops here decides where the call can go, so every call can be served
+        int[] cars = carsByFloor[index];
+        int[] reachable = carFloors[cars[cars.length == 1 ? 0 : random.nextInt(cars.length)]];
+        int destination;
+        if (start != lobby && reachable[0] == lobby && random.nextDouble() < profile.getToLobbyShare()) {
+            destination = lobby;
+        } else {
+            destination = reachable[random.nextInt(reachable.length - 1)];
+            if (destination == start) {
+                destination = reachable[reachable.length - 1];
+            }
+        }
+        return new HallCall(Math.round(time), profile.getMix().create(random, ids), start, destination);
+    }
+
+    private static int[] union(int[] first, int[] second) {
+        int[] merged = new int[first.length + second.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < first.length || j < second.length) {
+            int next;
+            if (j == second.length || (i < first.length && first[i] < second[j])) {
+                next = first[i++];
+            } else if (i == first.length || second[j] < first[i]) {
+                next = second[j++];
+            } else {
+                next = first[i++];
+                j++;
+            }
+            merged[count++] = next;
+        }
+        return Arrays.copyOf(merged, count);
+    }
+}
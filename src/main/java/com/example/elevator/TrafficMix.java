@@ -0,0 +1,159 @@
+package com.example.elevator;
+
+import java.util.Random;
+
+public class TrafficMix {
+    // a hospital day: mostly patients and visitors, some staff
+    public static final TrafficMix HOSPITAL = new TrafficMix(0.10, 0.20, 0.40, 0.30, 0.25, 0.15);
+
+    private static final WalkingAid[] WALKING_AIDS = {WalkingAid.Crutches, WalkingAid.Frame, WalkingAid.Wheelchair};
+    private static final int[] WALKING_AID_ORDINALS = {WalkingAid.Crutches.ordinal(), WalkingAid.Frame.ordinal(), WalkingAid.Wheelchair.ordinal()};
+    private static final int[] EMERGENCY_INDEXES = {1, 2}; // levels 2 and 3
+
+    //relative share of each person type, normalized in the constructor
+    private final double doctors;
+    private final double nurses;
+    private final double patients;
+    private final double visitors;
+    private final double walkingAidShare;  // patients that use a walking aid
+    private final double emergencyShare;   // staff called to an emergency (level 2 or 3)
+
+    //how aids and emergency levels split, cumulative over WALKING_AIDS and over levels 2 and 3. Null for an even split.
+    private final double[] walkingAidSplit;
+    private final double[] emergencySplit;
+
+    public TrafficMix(double doctors, double nurses, double patients, double visitors, double walkingAidShare, double emergencyShare) {
+        this(doctors, nurses, patients, visitors, walkingAidShare, null, emergencyShare, null);
+    }
+
+    // Full distributions: walkingAids is indexed by WalkingAid.ordinal(), emergencyLevels by level - 1
+    public TrafficMix(double doctors, double nurses, double patients, double visitors, double[] walkingAids, double[] emergencyLevels) {
+        this(doctors, nurses, patients, visitors,
+                1 - share(weights(walkingAids, WalkingAid.values().length, "walking aid"), WalkingAid.None.ordinal()),
+                split(walkingAids, WALKING_AID_ORDINALS),
+                1 - share(weights(emergencyLevels, 3, "emergency level"), 0),
+                split(emergencyLevels, EMERGENCY_INDEXES));
+    }
+
+    private TrafficMix(double doctors, double nurses, double patients, double visitors, double walkingAidShare, double[] walkingAidSplit,
+                       double emergencyShare, double[] emergencySplit) {
+        double total = doctors + nurses + patients + visitors;
+        if (doctors < 0 || nurses < 0 || patients < 0 || visitors < 0 || total <= 0) {
+            throw new IllegalArgumentException("Traffic mix shares must not be negative and must not all be zero.");
+        }
+        this.doctors = doctors / total;
+        this.nurses = nurses / total;
+        this.patients = patients / total;
+        this.visitors = visitors / total;
+        this.walkingAidShare = walkingAidShare;
+        this.walkingAidSplit = walkingAidSplit;
+        this.emergencyShare = emergencyShare;
+        this.emergencySplit = emergencySplit;
+    }
+
+    public Person create(Random random, IDAllocator ids) {
+        int weight = 50 + random.nextInt(61);
+        int height = 150 + random.nextInt(51);
+        IDAllocator.Kind kind = kind(random);
+        int detail = detail(kind, random);
+        WalkingAid walkingAid = kind == IDAllocator.Kind.PATIENT ? WalkingAid.values()[detail] : null;
+        int emergencyLevel = kind == IDAllocator.Kind.PATIENT ? 0 : detail;
+        return PersonTypeAdapter.create(kind, ids.allocate(kind), weight, height, emergencyLevel, walkingAid);
+    }
+
+    // Same draws as create, written straight into the store without building a Person
+    public int addTo(PassengerStore store, long time, int startFloor, int destinationFloor, Random random, IDAllocator ids) {
+        int weight = 50 + random.nextInt(61);
+        int height = 150 + random.nextInt(51);
+        IDAllocator.Kind kind = kind(random);
+        int detail = detail(kind, random);
+        return store.add(time, ids.allocate(kind), weight, height, detail, startFloor, destinationFloor);
+    }
+
+    private IDAllocator.Kind kind(Random random) {
+        double pick = random.nextDouble();
+        if (pick < doctors) {
+            return IDAllocator.Kind.DOCTOR;
+        }
+        pick -= doctors;
+        if (pick < nurses) {
+            return IDAllocator.Kind.NURSE;
+        }
+        pick -= nurses;
+        return pick < patients ? IDAllocator.Kind.PATIENT : IDAllocator.Kind.VISITOR;
+    }
+
+    // Emergency level for staff, WalkingAid ordinal for patients, 0 for visitors
+    private int detail(IDAllocator.Kind kind, Random random) {
+        switch (kind) {
+            case DOCTOR:
+            case NURSE:
+                return emergencyLevel(random);
+            case PATIENT:
+                return random.nextDouble() < walkingAidShare
+                        ? WALKING_AIDS[pick(walkingAidSplit, WALKING_AIDS.length, random)].ordinal()
+                        : WalkingAid.None.ordinal();
+            default:
+                return 0;
+        }
+    }
+
+    private int emergencyLevel(Random random) {
+        return random.nextDouble() < emergencyShare ? 2 + pick(emergencySplit, EMERGENCY_INDEXES.length, random) : 1;
+    }
+
+    private static int pick(double[] cumulative, int count, Random random) {
+        if (cumulative == null) {
+            return random.nextInt(count);
+        }
+        double draw = random.nextDouble();
+        int index = 0;
+        while (index < cumulative.length - 1 && draw >= cumulative[index]) {
+            index++;
+        }
+        return index;
+    }
+
+    private static double[] weights(double[] weights, int length, String name) {
+        if (weights.length != length) {
+            throw new IllegalArgumentException("Expected " + length + " " + name + " weights, got " + weights.length + ".");
+        }
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("The " + name + " weights must not be negative.");
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The " + name + " weights must not all be zero.");
+        }
+        return weights;
+    }
+
+    private static double share(double[] weights, int index) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        return weights[index] / total;
+    }
+
+    // Cumulative shares of the chosen entries among themselves, null if none of them has any weight
+    private static double[] split(double[] weights, int[] indexes) {
+        double total = 0;
+        for (int index : indexes) {
+            total += weights[index];
+        }
+        if (total <= 0) {
+            return null;
+        }
+        double[] cumulative = new double[indexes.length];
+        double sum = 0;
+        for (int i = 0; i < indexes.length; i++) {
+            sum += weights[indexes[i]];
+            cumulative[i] = sum / total;
+        }
+        return cumulative;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.elevator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A named period of hospital traffic: how often calls come up on each floor, who makes them and where they go.
+// Rates are Poisson arrivals per minute and per floor. The lobby is the lowest floor of the building.
+public class TrafficProfile {
+    // staff arriving for the day shift ride up from the lobby, the night shift goes home
+    public static final TrafficProfile MORNING_SHIFT_CHANGE = new TrafficProfile("morning", 6.0, 0.5, 0.2,
+            new TrafficMix(0.30, 0.45, 0.10, 0.15, aids(0.85, 0.05, 0.05, 0.05), levels(0.90, 0.07, 0.03)));
+    // mostly visitors, up from the lobby and back down again
+    public static final TrafficProfile VISITING_HOURS = new TrafficProfile("visiting", 3.0, 1.5, 0.6,
+            new TrafficMix(0.05, 0.10, 0.15, 0.70, aids(0.80, 0.06, 0.08, 0.06), levels(0.95, 0.04, 0.01)));
+    // down-peak, the wards empty towards the cafeteria in the lobby
+    public static final TrafficProfile LUNCH_DOWN_PEAK = new TrafficProfile("lunch", 0.8, 2.5, 0.8,
+            new TrafficMix(0.20, 0.30, 0.20, 0.30, aids(0.80, 0.06, 0.08, 0.06), levels(0.95, 0.04, 0.01)));
+    // a burst of staff answering emergencies all over the building
+    public static final TrafficProfile CODE_BLUE = new TrafficProfile("codeblue", 1.0, 3.0, 0.1,
+            new TrafficMix(0.55, 0.45, 0, 0, aids(1, 0, 0, 0), levels(0, 0.4, 0.6)));
+    // an ordinary stretch of the day, the same mix the Monte Carlo runs use
+    public static final TrafficProfile DAYTIME = new TrafficProfile("day", 1.5, 1.0, 0.5, TrafficMix.HOSPITAL);
+
+    private static final List<TrafficProfile> PRESETS = Arrays.asList(MORNING_SHIFT_CHANGE, VISITING_HOURS, LUNCH_DOWN_PEAK, CODE_BLUE, DAYTIME);
+
+    private final String name;
+    private final double lobbyRate;
+    private final double floorRate;
+    private final Map<Integer, Double> floorRates; // floors with a rate of their own
+    private final double toLobbyShare;             // calls from an upper floor that go to the lobby
+    private final TrafficMix mix;
+
+    public TrafficProfile(String name, double lobbyRate, double floorRate, double toLobbyShare, TrafficMix mix) {
+        this(name, lobbyRate, floorRate, new HashMap<>(), toLobbyShare, mix);
+    }
+
+    private TrafficProfile(String name, double lobbyRate, double floorRate, Map<Integer, Double> floorRates,
+                           double toLobbyShare, TrafficMix mix) {
+        if (lobbyRate < 0 || floorRate < 0 || toLobbyShare < 0 || toLobbyShare > 1) {
+            throw new IllegalArgumentException("Rates must not be negative and the lobby share must be between 0 and 1.");
+        }
+        this.name = name;
+        this.lobbyRate = lobbyRate;
+        this.floorRate = floorRate;
+        this.floorRates = floorRates;
+        this.toLobbyShare = toLobbyShare;
+        this.mix = mix;
+    }
+
+    // A copy where one floor has its own rate, e.g. the floor of the emergency department
+    public TrafficProfile withFloorRate(int floor, double perMinute) {
+        if (perMinute < 0) {
+            throw new IllegalArgumentException("Rates must not be negative.");
+        }
+        Map<Integer, Double> rates = new HashMap<>(floorRates);
+        rates.put(floor, perMinute);
+        return new TrafficProfile(name, lobbyRate, floorRate, rates, toLobbyShare, mix);
+    }
+
+    public static TrafficProfile named(String name) {
+        for (TrafficProfile profile : PRESETS) {
+            if (profile.name.equalsIgnoreCase(name)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown traffic profile: " + name + ". Try morning, visiting, lunch, codeblue or day.");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Calls per minute starting on the floor
+    public double getRate(int floor, int lobby) {
+        Double rate = floorRates.get(floor);
+        if (rate != null) {
+            return rate;
+        }
+        return floor == lobby ? lobbyRate : floorRate;
+    }
+
+    public double getToLobbyShare() {
+        return toLobbyShare;
+    }
+
+    public TrafficMix getMix() {
+        return mix;
+    }
+
+    // Aid weights from least to most room taken, put in WalkingAid.ordinal() order for TrafficMix
+    private static double[] aids(double none, double crutches, double frame, double wheelchair) {
+        double[] weights = new double[WalkingAid.values().length];
+        weights[WalkingAid.None.ordinal()] = none;
+        weights[WalkingAid.Crutches.ordinal()] = crutches;
+        weights[WalkingAid.Frame.ordinal()] = frame;
+        weights[WalkingAid.Wheelchair.ordinal()] = wheelchair;
+        return weights;
+    }
+
+    private static double[] levels(double one, double two, double three) {
+        return new double[]{one, two, three};
+    }
+}
@@ -6,6 +6,14 @@ public class Visitor extends Person{
         super(IDGenerator.generateVisitorID(), weight, height);
     }
 
+    public Visitor(IDAllocator ids, int weight, int height) {
+        super(ids.allocate(IDAllocator.Kind.VISITOR), weight, height);
+    }
+
+    Visitor(int ID, int weight, int height) {
+        super(ID, weight, height);
+    }
+
     @Override
     public int getPriorityLevel() {
         return 1;